@@ -0,0 +1,82 @@
+package conwayJavaFX;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+/***
+ * <b> The DataStructureBenchmark Class: Cell Reads and Writes of Every Engine </b>
+ * <p> Description: Measures readDataStructure and writeDataStructure on a random board of each engine, for
+ * several sizes and densities of alive cells. The cells are taken in turn from a fixed table of random
+ * coordinates, so the same cells are visited whatever the engine; the writes keep the density of the board.
+ * @author JSGREWAL
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector,jdk.incubator.foreign"})
+public class DataStructureBenchmark {
+
+	private static final int COORDINATES = 1 << 12;		// The size of the table of random cells, a power of two
+
+	@Param({"ARRAY_2D", "BIT_PACKED", "HASHLIFE", "ACTIVE_FRONTIER", "TILED", "SPARSE_UNBOUNDED", "LOOKUP_TABLE",
+			"NEIGHBOUR_COUNT", "RUN_LENGTH", "HYBRID_CONTAINERS", "OFF_HEAP", "MAPPED"})
+	public String engine;
+
+	@Param({"256", "1024"})
+	public int size;
+
+	@Param({"0.05", "0.5"})
+	public double density;
+
+	private MemoryDataStructureInterface cells;
+	private int[] rows = new int[COORDINATES];
+	private int[] cols = new int[COORDINATES];
+	private boolean[] states = new boolean[COORDINATES];
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		cells = Engine.valueOf(engine).newDataStructure(size, size);
+		BenchmarkSupport.fillRandomly(cells, size, density);
+		Random random = new Random(42);
+		for (int i = 0; i < COORDINATES; i++) {
+			rows[i] = 1 + random.nextInt(size - 2);
+			cols[i] = 1 + random.nextInt(size - 2);
+			states[i] = random.nextDouble() < density;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		cells.releaseDataStructure();
+	}
+
+	@Benchmark
+	public boolean read() {
+		int i = next++ & (COORDINATES - 1);
+		return cells.readDataStructure(rows[i], cols[i]);
+	}
+
+	@Benchmark
+	public void write() {
+		int i = next++ & (COORDINATES - 1);
+		cells.writeDataStructure(rows[i], cols[i], states[i]);
+	}
+
+}
@@ -0,0 +1,73 @@
+package conwayJavaFX;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+/***
+ * <b> The StepBenchmark Class: Board.step of Every Engine on Random Boards </b>
+ * <p> Description: Measures one generation of Board.step, the odd and even boards taking turns as in the user
+ * interface. Each iteration starts again from the same random board, which then evolves for as many
+ * generations as the iteration lasts.
+ * @author JSGREWAL
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector,jdk.incubator.foreign"})
+public class StepBenchmark {
+
+	@Param({"ARRAY_2D", "BIT_PACKED", "HASHLIFE", "ACTIVE_FRONTIER", "TILED", "SPARSE_UNBOUNDED", "LOOKUP_TABLE",
+			"NEIGHBOUR_COUNT", "RUN_LENGTH", "HYBRID_CONTAINERS", "OFF_HEAP", "MAPPED"})
+	public String engine;
+
+	@Param({"256", "1024"})
+	public int size;
+
+	@Param({"0.05", "0.5"})
+	public double density;
+
+	private Board odd;
+	private Board even;
+	private boolean toggle;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		odd = new Board(size, size, Engine.valueOf(engine));
+		even = new Board(size, size, Engine.valueOf(engine));
+		BenchmarkSupport.fillRandomly(odd.cellIsAlive, size, density);
+		toggle = true;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		odd.release();
+		even.release();
+	}
+
+	@Benchmark
+	public Board step() {
+		toggle = !toggle;
+		if (toggle) {
+			odd.step(even);
+			return odd;
+		}
+		even.step(odd);
+		return even;
+	}
+
+}
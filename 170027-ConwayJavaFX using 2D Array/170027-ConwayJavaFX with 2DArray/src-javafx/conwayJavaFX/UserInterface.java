@@ -2,6 +2,7 @@ package conwayJavaFX;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.Scanner;
 
 import javafx.animation.Animation;
@@ -14,6 +15,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.util.Duration;
 import javafx.scene.shape.Rectangle;
+import jdk.jfr.EventType;
 /*******
  * <p> Title: UserInterface Class. </p>
  * 
@@ -26,6 +28,11 @@ import javafx.scene.shape.Rectangle;
  * 
  * @version 2.03	2018-05-07 An implementation baseline for JavaFX graphics
  * @version 2.04	2019-03-10 Implementation of Helper Routines for Performance Analysis
+ * @version 2.05	2019-03-24 Jump to a later generation before the simulation starts
+ * @version 2.06	2019-04-14 Detection of static, empty and periodic boards and replay of the cycle
+ * @version 2.07	2019-06-30 The canvas is drawn here, the Board has no JavaFX dependency
+ * @version 2.08	2019-07-07 Render times and populations recorded in the metrics, printed every interval
+ * @version 2.09	2019-07-14 Flight Recorder events for the rendering, the loading and the check of a pattern
  * 
  */
 public class UserInterface {
@@ -51,6 +58,8 @@ public class UserInterface {
 	private Button button_Load = new Button("Load the pattern");
 	private Button button_Start = new Button("Start");
 	private Button button_Stop = new Button("Stop");
+	private TextField text_Generation = new TextField();
+	private Button button_Jump = new Button("Jump");
 
 	// The attributes used to specify and assess the validity of the data file that defines the game
 	private String str_FileName;			// The string that the user enters for the file name
@@ -86,6 +95,20 @@ public class UserInterface {
 	private boolean toggle = true;					// A two-state attribute that specifies which
 													// is the previous Board and which is the new
 	private int toggleStep =0;
+
+	// The metrics of the simulation are printed every conway.metrics.interval generations (100 by default, 0 never)
+	private static final int METRICS_INTERVAL = Integer.getInteger("conway.metrics.interval", 100);
+
+	// The Flight Recorder type of the render events: no event is made while no recording takes them
+	private static final EventType RENDER_EVENT_TYPE = EventType.getEventType(RenderEvent.class);
+
+	// These attributes detect that the boards have settled into a cycle. The canvases of one period are then
+	// kept and replayed, and no more generations are computed
+	private static final int MAXIMUM_REPLAYED_PERIOD = 256;	// Longer cycles are reported but still computed
+	private CycleDetector cycleDetector = new CycleDetector();
+	private ArrayList<Pane> cycleCanvases = null;	// The canvases of one period of the cycle
+	private int replayFrame = 0;
+	private Pane shownCanvas;						// The canvas currently in the window
 	/**********************************************************************************************
 
 	Constructors
@@ -145,9 +168,21 @@ public class UserInterface {
 		// execution
 		button_Stop.setOnAction((event) -> { stopConway(); });
 
+		// Establish the text input widget and the button used to jump to a later generation of the loaded
+		// pattern before the simulation is started
+		setupTextUI(text_Generation, "Arial", 18, 120, Pos.BASELINE_LEFT, 
+				ConwayMain.WINDOW_WIDTH / 2 + 40, controlPanelHeight + 24, true);
+		text_Generation.setPromptText("Generation");
+		setupButtonUI(button_Jump, "Arial", 18, 60, Pos.BASELINE_LEFT, ConwayMain.WINDOW_WIDTH / 2 + 170,  
+				controlPanelHeight + 24);
+		
+		// Link the jump button to the routine that advances the loaded board
+		button_Jump.setOnAction((event) -> { jumpToGeneration(); });
+
 		// Disable the buttons (They will appear grayed out)
 		button_Load.setDisable(true);
 		button_Start.setDisable(true);
+		button_Jump.setDisable(true);
 
 		// The following set up the control panel messages for messages and information about errors
 		setupLabelUI(message_FileFound, "Arial", 18, 150, Pos.BASELINE_LEFT, 350, controlPanelHeight);
@@ -164,7 +199,8 @@ public class UserInterface {
 		// Place all of the just-initialized GUI elements into the pane with the exception of the
 		// Stop button.  That widget will replace the Start button, once the Start has been pressed
 		theRoot.getChildren().addAll(rect_outer, rect_middle, rect_inner, label_FileName, text_FileName, 
-				button_Load, button_Start, message_FileFound, message_FileNotFound, message_ErrorDetails);
+				button_Load, button_Start, text_Generation, button_Jump, message_FileFound, message_FileNotFound, 
+				message_ErrorDetails);
 	}
 
 	
@@ -264,27 +300,77 @@ public class UserInterface {
 	 * odd Board and sets up the even board for the simulation.
 	 */
 	private void loadImageData() {
+		PatternLoadEvent event = new PatternLoadEvent();
+		event.begin();
+		oddGameBoard.release();						// Free the storage of the boards being replaced
+		evenGameBoard.release();
 		try {
-			oddGameBoard = new Board(boardSizeWidth, boardSizeHeight, new Scanner(new File(str_FileName)));
+			// A mapped board can carry on from the generation saved in its files instead of the pattern
+			Board resumed = null;
+			if (Engine.selected() == Engine.MAPPED && Boolean.getBoolean("conway.mapped.resume"))
+				resumed = Board.resume(boardSizeHeight);
+			oddGameBoard = resumed != null ? resumed 
+					: new Board(boardSizeWidth, boardSizeHeight, new Scanner(new File(str_FileName)));
 			evenGameBoard = new Board(boardSizeWidth, boardSizeHeight);
 		}
 		catch (FileNotFoundException e)  {
 			// Since we have already done this check, this exception should never happen
 		}
-		oddGameBoard.populateCanvas(oddCanvas);		// Given the odd data, populate the odd canvas
+		int population = populateCanvas(oddGameBoard, oddCanvas);	// Given the odd data, populate the odd canvas
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = str_FileName;
+			event.generation = oddGameBoard.getGeneration();
+			event.width = (int)oddGameBoard.cellIsAlive.getDataStructureWidth();
+			event.height = (int)oddGameBoard.cellIsAlive.getDataStructureHeight();
+			event.population = population;
+			event.engine = oddGameBoard.engine.getDisplayName();
+			event.commit();
+		}
+		shownCanvas = oddCanvas;
 		window.getChildren().add(oddCanvas);		// Add the odd canvas to the display so the
 													// user can see if this is the right data
 		
 		button_Load.setDisable(true);				// Disable the Load button, since it is done
 		button_Start.setDisable(false);				// Enable the Start button
+		button_Jump.setDisable(false);				// Enable the Jump button
 	};												// and wait for the User to press it.
 
+	/**********
+	 * This method is called when the Jump button is pressed. It advances the loaded (odd) Board to the
+	 * generation entered by the user and displays it.
+	 */
+	private void jumpToGeneration() {
+		long target;
+		try {
+			target = Long.parseLong(text_Generation.getText().trim());
+		}
+		catch (NumberFormatException e) {
+			message_ErrorDetails.setText("The generation to jump to must be a whole number.");
+			return;
+		}
+		if (target < oddGameBoard.getGeneration()) {
+			message_ErrorDetails.setText("The board is already at generation " + oddGameBoard.getGeneration() + ".");
+			return;
+		}
+		message_ErrorDetails.setText("");
+		oddGameBoard.jumpToGeneration(target);		// Advance the odd board
+
+		window.getChildren().remove(oddCanvas);		// Discard the old (oddCanvas) data
+		oddCanvas = new Pane();						// and display the new generation
+		populateCanvas(oddGameBoard, oddCanvas);
+		shownCanvas = oddCanvas;
+		window.getChildren().add(oddCanvas);
+	}
+
 	/**********
 	 * This method removes the start button, sets up the stop button, and starts the simulation
 	 */
 	private void startConway() {
 		window.getChildren().remove(button_Start);	// Remove the start button
 		window.getChildren().add(button_Stop);		// Add in the stop button
+		button_Jump.setDisable(true);				// The board can no longer be jumped
+		Board.getMetrics().reset();					// Leave out the steps of a jump
 		
 		// Start the simulation by means of an animation Timeline using a keyframe duration of 
 		// 50 milliseconds
@@ -307,20 +393,22 @@ public class UserInterface {
 	 * This method is run each time the timeline triggers it
 	 */
 	public void runSimulation(){
+
+		// Once a whole period of the cycle has been kept, just show its canvases in turn
+		if (cycleCanvases != null && cycleCanvases.size() == cycleDetector.getPeriod()) {
+			replayCycle();
+			return;
+		}
 		
 		// Use the toggle to flip back and forth between the even and the odd boards
 		if (toggle) {
-			if (toggleStep==100) {
-				evenGameBoard.fetchPerformance_Time();
-			}
 			// When the toggle is true, we use the odd board as the previous board and that data
 			evenGameBoard.step(oddGameBoard);			// sets up the new board (even)
-			Board.firstStepIsDone();
 			window.getChildren().remove(oddCanvas);		// Discard the old (oddCanvas) data
 			
 			evenCanvas = new Pane();					// Set up a new empty even canvas
 			
-			evenGameBoard.populateCanvas(evenCanvas);	// Populate the even canvas using the
+			renderGeneration(evenGameBoard, evenCanvas);	// Populate the even canvas using the
 														// data from the even board
 			
 			window.getChildren().add(evenCanvas);		// Add the even canvas to the window so
@@ -331,18 +419,14 @@ public class UserInterface {
 		}	
 		
 		else {
-			if (toggleStep==100) {
-				oddGameBoard.fetchPerformance_Time();
-			}
 			// When the toggle is false, we use the even board as the previous board and that data
-			Board.firstStepIsDone();
 			oddGameBoard.step(evenGameBoard);			// sets up the new board (odd)
 			
 			window.getChildren().remove(evenCanvas);	// Discard the old (evenCanvas) data
 			
 			oddCanvas = new Pane();						// Set up a new empty odd canvas
 			
-			oddGameBoard.populateCanvas(oddCanvas);		// Populate the odd canvas using the
+			renderGeneration(oddGameBoard, oddCanvas);	// Populate the odd canvas using the
 														// data from the even board
 			
 			window.getChildren().add(oddCanvas);		// Add the even canvas to the window so
@@ -351,7 +435,82 @@ public class UserInterface {
 			toggle = true;								// set up so next call uses the odd
 		toggleStep++;
 		}												// board as the previous
-	
+
+		if (METRICS_INTERVAL > 0 && toggleStep % METRICS_INTERVAL == 0)
+			(toggle ? oddGameBoard : evenGameBoard).fetchPerformance_Time();
+		checkForCycle(toggle ? oddGameBoard : evenGameBoard, toggle ? oddCanvas : evenCanvas);
+	}
+
+	/**********
+	 * This method populates the canvas of a new generation, and records in the metrics of the simulation the
+	 * time taken to build the canvas and the population it shows
+	 */
+	private void renderGeneration(Board board, Pane p) {
+		RenderEvent event = RENDER_EVENT_TYPE.isEnabled() ? new RenderEvent() : null;
+		if (event != null) event.begin();
+		long start = System.nanoTime();
+		int population = populateCanvas(board, p);
+		Board.getMetrics().recordRender(System.nanoTime() - start);
+		Board.getMetrics().recordPopulation(population);
+		if (event != null) event.end();
+		if (event != null && event.shouldCommit()) {
+			event.generation = board.getGeneration();
+			event.width = (int)board.cellIsAlive.getDataStructureWidth();
+			event.height = (int)board.cellIsAlive.getDataStructureHeight();
+			event.population = population;
+			event.engine = board.engine.getDisplayName();
+			event.commit();
+		}
+	}
+
+	/**********
+	 * This method places a number of black squares into a specified window pane, one for each live
+	 * cell of a board, and returns how many. The board is read a whole row at a time.
+	 */
+	private int populateCanvas(Board board, Pane p) {
+		MemoryDataStructureInterface cells = board.cellIsAlive;
+		int width = (int)cells.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
+		int squares = 0;
+		for (int y = 1; y < cells.getDataStructureHeight()-1; y++) {
+			cells.readRowSegment(y, 0, width, row);
+			for (int x = 1; x < width-1; x++)
+				if (Board.isSet(row, x)) {
+					Rectangle rectangle = new Rectangle(5,5,Color.BLACK);
+					rectangle.relocate(6*x, 6*y);
+					p.getChildren().add(rectangle);
+					squares++;
+				}
+		}
+		return squares;
+	}
+
+	/**********
+	 * This method records the hash of the board that was just computed. When a cycle is found it is
+	 * reported, and the canvases of the next period are kept so they can be replayed.
+	 */
+	private void checkForCycle(Board newBoard, Pane newCanvas) {
+		shownCanvas = newCanvas;
+		if (cycleCanvases != null) {					// Keeping the canvases of the cycle
+			cycleCanvases.add(newCanvas);
+			return;
+		}
+		if (cycleDetector.getPeriod() > 0) return;		// Already reported, too long to replay
+		if (cycleDetector.record(newBoard.getGeneration(), newBoard.getBoardHash()) == 0) return;
+
+		System.out.println("At generation " + newBoard.getGeneration() + " the board is " + cycleDetector.describe()
+				+ " (the cycle starts at generation " + cycleDetector.getCycleStart() + ")");
+		if (cycleDetector.getPeriod() <= MAXIMUM_REPLAYED_PERIOD) cycleCanvases = new ArrayList<>();
+	}
+
+	/**********
+	 * This method replaces the canvas in the window by the next canvas of the cycle
+	 */
+	private void replayCycle() {
+		window.getChildren().remove(shownCanvas);
+		shownCanvas = cycleCanvases.get(replayFrame);
+		window.getChildren().add(shownCanvas);
+		replayFrame = (replayFrame + 1) % cycleCanvases.size();
 	}
 	
 
@@ -365,6 +524,25 @@ public class UserInterface {
 	 * 						details about what is wrong with the input data so the user can fix it
 	 */
 	private boolean fileContentsAreValid() {
+		PatternValidationEvent event = new PatternValidationEvent();
+		event.begin();
+		boolean valid = readFileContents();
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = str_FileName;
+			event.width = boardSizeWidth;
+			event.height = boardSizeHeight;
+			event.valid = valid;
+			event.error = errorMessage_FileContents;
+			event.commit();
+		}
+		return valid;
+	}
+
+	/**********
+	 * This method does the reading for fileContentsAreValid, returning at the first line that is not valid
+	 */
+	private boolean readFileContents() {
 		
 		// Declare and initialize data variables used to control the method
 		int firstValue = -1;
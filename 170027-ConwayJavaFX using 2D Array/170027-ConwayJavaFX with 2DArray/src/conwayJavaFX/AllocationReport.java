@@ -0,0 +1,76 @@
+package conwayJavaFX;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+/***
+ * <b> The AllocationReport Class: Heap Allocated by Each Generation </b>
+ * <p> Description: This console program steps the same random board with every engine and measures, with the
+ * allocation counter of the running thread, how many bytes of heap each generation allocates once the two
+ * boards have warmed up. The generations are measured in a few rounds and the smallest round is kept: the
+ * counter also sees the one-off work the virtual machine does in the thread (linking, deoptimizing), which
+ * never happens in every round, while an allocation of the step does. The engines whose data structure is
+ * recycled by the step (see MemoryDataStructureInterface.clearDataStructure) must allocate nothing; the program
+ * says so for each of them and ends with a non-zero exit status when one of them does allocate. HashLife is
+ * recycled too, but the nodes it builds for a new generation are its storage, kept in its node cache, so it is
+ * not expected to be allocation free.
+ *
+ * <p> Usage: <code>java conwayJavaFX.AllocationReport [size] [generations]</code>. The defaults are a 512 x 512
+ * board measured over 200 generations.
+ * @author JSGREWAL
+ */
+
+public class AllocationReport {
+
+	// The number of rounds of generations measured for each engine
+	private static final int ROUNDS = 3;
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+		int generations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Board.setParallelism(1);					// The counter only sees the allocations of this thread
+
+		System.out.println("Heap allocated per generation, " + size + " x " + size + " board, " + generations 
+				+ " generations");
+		System.out.println("Engine                              Bytes/generation   Recycled   Allocation free");
+		boolean passed = true;
+		for (Engine engine: Engine.values()) {
+			if (!engine.isAvailable()) continue;
+			Board odd = new Board(size, size, engine);
+			Board even = new Board(size, size, engine);
+			Random random = new Random(170027);
+			for (int x = 1; x < size-1; x++)
+				for (int y = 1; y < size-1; y++)
+					if (random.nextInt(3) == 0) odd.cellIsAlive.writeDataStructure(x, y, true);
+
+			// Warm up: the first steps allocate the data structures and compile the step
+			step(odd, even, 50);
+			long allocated = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+				step(odd, even, generations);
+				allocated = Math.min(allocated, threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before);
+			}
+
+			boolean recycled = odd.cellIsAlive.clearDataStructure();
+			boolean checked = recycled && engine != Engine.HASHLIFE;		// The new nodes of HashLife are its cells
+			if (checked && allocated > 0) passed = false;
+			System.out.println(String.format("%-35s %16d   %-8s   %s", engine.getDisplayName(), allocated / generations,
+					recycled ? "yes" : "no", !checked ? "-" : allocated == 0 ? "yes" : "NO"));
+			odd.release();
+			even.release();
+		}
+		if (!passed) System.exit(1);
+	}
+
+	/***
+	 * Steps the pair of boards for an even number of generations, so the odd board ends with the newest one
+	 */
+	private static void step(Board odd, Board even, int generations) {
+		for (int generation = 0; generation < generations; generation++) {
+			if (generation % 2 == 0) even.step(odd);
+			else odd.step(even);
+		}
+	}
+
+}
@@ -0,0 +1,241 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The BitPackedDataStructure Class: Bit-Packed Long Array Implementation </b>
+ * <p> Description: This data structure stores the board as one bit per cell, 64 cells per long, instead of
+ * one boolean per cell. Each line of the board (the first index of the 2D Array implementation) is a run of
+ * longs, so a board takes an eighth of the memory of the boolean array.
+ *
+ * <p> Because 64 neighbouring cells live in a single long, the next generation can be computed a whole word at
+ * a time with bitwise adder logic (see nextGeneration) instead of eight readDataStructure calls per cell.
+ * The cell addressing is the same as the 2D Array implementation, so both produce identical boards.
+ * @author JSGREWAL
+ */
+
+public class BitPackedDataStructure implements MemoryDataStructureInterface {
+
+	private long[] cellWords;		// The cells, line after line, 64 cells per long
+	private int wordsPerLine;		// The number of longs used by each line
+	private long[] interiorMask;	// The bits of a line that are not on the left or right boundary
+	private long[] lineHashes;		// The Zobrist hash of the alive cells of each line
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	/***
+	 * Constructs the bit-packed array of dimensions height x width
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public BitPackedDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		int h = (int)height;
+		int w = (int)width;
+		wordsPerLine = (w + 63) >>> 6;
+		cellWords = new long[h * wordsPerLine];
+		lineHashes = new long[h];
+
+		// Only the cells 1 .. width-2 of a line are ever computed by a step, the boundary stays dead
+		interiorMask = new long[wordsPerLine];
+		for (int bit = 1; bit < w - 1; bit++) interiorMask[bit >>> 6] |= 1L << bit;
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		return (cellWords[c * wordsPerLine + (r >>> 6)] & (1L << r)) != 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		int index = c * wordsPerLine + (r >>> 6);
+		long word = isAlive ? cellWords[index] | (1L << r) : cellWords[index] & ~(1L << r);
+		if (word != cellWords[index]) lineHashes[c] ^= CycleDetector.cellKey(r, c);
+		cellWords[index] = word;
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure, the words and the hash of each line
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return cellWords.length * 8L + lineHashes.length * 8L;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step one line at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long lineHash: lineHashes) hash ^= lineHash;
+		return hash;
+	}
+
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, 64 cells at a time from the words of the
+	 * line holding it (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		int line = (int)col;
+		int r = (int)fromRow;
+		int shift = r & 63;
+		int words = (numberOfCells + 63) >>> 6;
+		for (int word = 0; word < words; word++) {
+			int index = (r >>> 6) + word;
+			long bits = word(line, index) >>> shift;
+			if (shift != 0) bits |= word(line, index + 1) << (64 - shift);
+			bitmap[word] = bits;
+		}
+		if ((numberOfCells & 63) != 0) bitmap[words - 1] &= (1L << numberOfCells) - 1;
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap, 64 cells at a time into the words of the
+	 * line holding it (see MemoryDataStructureInterface.writeRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		int line = (int)col;
+		int out = line * wordsPerLine;
+		int r = (int)fromRow;
+		int shift = r & 63;
+		for (int i = 0; i < numberOfCells; ) {
+			// The cells i .. i+n-1 of the bitmap go to one word of the line, from bit (r + i) % 64
+			int n = Math.min(numberOfCells - i, 64 - ((r + i) & 63));
+			long bits = bitmap[i >>> 6] >>> (i & 63);
+			if ((i & 63) != 0 && n > 64 - (i & 63)) bits |= bitmap[(i >>> 6) + 1] << (64 - (i & 63));
+			long mask = (n == 64 ? -1L : (1L << n) - 1) << ((r + i) & 63);
+			int index = out + ((r + i) >>> 6);
+			long word = (cellWords[index] & ~mask) | ((bits << ((r + i) & 63)) & mask);
+			lineHashes[line] ^= CycleDetector.wordKey(word ^ cellWords[index], (long)(index - out) << 6, line);
+			cellWords[index] = word;
+			i += n;
+		}
+	}
+
+	/***
+	 * This routine sets every cell dead, keeping the words so the data structure can be filled again
+	 * @return True, the bit-packed array can always be recycled
+	 */
+	public boolean clearDataStructure() {
+		Arrays.fill(cellWords, 0L);
+		Arrays.fill(lineHashes, 0L);
+		return true;
+	}
+
+	/***
+	 * Fetches one word of a line, treating anything outside of the board as dead cells
+	 * @param line The line index
+	 * @param index The index of the word within the line
+	 * @return The 64 cells held by that word
+	 */
+	private long word(int line, int index) {
+		if (line < 0 || index < 0 || index >= wordsPerLine || (line + 1) * wordsPerLine > cellWords.length) return 0L;
+		return cellWords[line * wordsPerLine + index];
+	}
+
+	/***
+	 * This routine fills this (empty) data structure with the generation that follows the previous one.
+	 *
+	 * For every word, the eight neighbours of all 64 cells are formed by shifting the words of the line
+	 * above, the same line and the line below one bit left and right (carrying the edge bit in from the
+	 * adjacent word). The eight neighbour words are then added bit-wise with full adders, giving for each
+	 * cell the bits of its neighbour count, and the rule is applied to all 64 cells at once (see
+	 * Rule.nextCells). Only the interior cells are computed, exactly like the cell by cell step of the Board.
+	 * The hash of a line is the one of the previous generation updated with the cells that changed.
+	 * @param previous The data structure holding the previous generation
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(BitPackedDataStructure previous, Rule rule) {
+		nextGeneration(previous, 1, (int)numberOfRows - 1, rule);
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next generation. Every line
+	 * is made of its own words, so separate bands of lines can be computed by different threads.
+	 * @param previous The data structure holding the previous generation
+	 * @param fromLine The first line to compute, at least 1
+	 * @param toLine The line after the last one to compute, at most height-1
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(BitPackedDataStructure previous, int fromLine, int toLine, Rule rule) {
+		for (int line = fromLine; line < toLine; line++) {
+			int out = line * wordsPerLine;
+			long hash = previous.lineHashes[line];
+			for (int i = 0; i < wordsPerLine; i++) {
+				// The words of the three lines, and the words either side for the carried edge bits
+				long a = previous.word(line - 1, i);
+				long b = previous.word(line, i);
+				long d = previous.word(line + 1, i);
+				long aW = (a << 1) | (previous.word(line - 1, i - 1) >>> 63);
+				long aE = (a >>> 1) | (previous.word(line - 1, i + 1) << 63);
+				long bW = (b << 1) | (previous.word(line, i - 1) >>> 63);
+				long bE = (b >>> 1) | (previous.word(line, i + 1) << 63);
+				long dW = (d << 1) | (previous.word(line + 1, i - 1) >>> 63);
+				long dE = (d >>> 1) | (previous.word(line + 1, i + 1) << 63);
+
+				// Full adders for the line above and the line below, a half adder for the two side cells
+				long aOnes = aW ^ a ^ aE;
+				long aTwos = (aW & a) | (aE & (aW ^ a));
+				long dOnes = dW ^ d ^ dE;
+				long dTwos = (dW & d) | (dE & (dW ^ d));
+				long bOnes = bW ^ bE;
+				long bTwos = bW & bE;
+
+				// Add the three "ones" bits; the carry joins the four "twos" bits, added with two half adders
+				long ones = aOnes ^ dOnes ^ bOnes;
+				long onesCarry = (aOnes & dOnes) | (bOnes & (aOnes ^ dOnes));
+				long twosAD = aTwos ^ dTwos;
+				long twosBC = bTwos ^ onesCarry;
+				long twos = twosAD ^ twosBC;
+				long fours = (aTwos & dTwos) ^ (bTwos & onesCarry) ^ (twosAD & twosBC);
+				long eights = aTwos & dTwos & bTwos & onesCarry;
+
+				long next = rule.nextCells(ones, twos, fours, eights, b) & interiorMask[i];
+				if (next != b) hash ^= CycleDetector.wordKey(next ^ b, (long)i << 6, line);
+				cellWords[out + i] = next;
+			}
+			lineHashes[line] = hash;
+		}
+	}
+
+}
@@ -1,11 +1,9 @@
 package conwayJavaFX;
 
+import java.util.Arrays;
 import java.util.Scanner;
 
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-
+import jdk.jfr.EventType;
 
 /*******
  * <p> Title: Board Class. </p>
@@ -19,6 +17,20 @@ import javafx.scene.shape.Rectangle;
  * 
  * @version 2.00	2018-04-27 An implementation baseline for JavaFX graphics
  * @version 2.01	2019-03-10 Implementation of Performance Analysis Routines
+ * @version 2.02	2019-03-24 Selectable engines and the bit-packed step
+ * @version 2.03	2019-03-31 Parallel step over bands of lines
+ * @version 2.04	2019-04-07 Vector API step for the 2D Array
+ * @version 2.05	2019-04-21 The step recycles the data structure of the generation before the previous one
+ * @version 2.06	2019-04-28 Life-like rules given by B/S rulestrings
+ * @version 2.07	2019-05-05 The step, the canvas and toString read and write whole rows
+ * @version 2.08	2019-05-12 Neighbour counts kept up to date by the writes
+ * @version 2.09	2019-06-02 Run-length encoded rows stepped run by run
+ * @version 2.10	2019-06-09 Chunks stored in array, bitmap or run containers
+ * @version 2.11	2019-06-16 Off-heap cells, freed as soon as the board drops them
+ * @version 2.12	2019-06-23 Boards in memory-mapped files, resumed after a restart
+ * @version 2.13	2019-06-30 No JavaFX in the Board, the canvas is drawn by the user interface
+ * @version 2.14	2019-07-07 Step times recorded in the histograms of SimulationMetrics
+ * @version 2.15	2019-07-14 A Flight Recorder event for every step
  * 
  * 
  */
@@ -27,10 +39,24 @@ public class Board {
 	
 	
 		
-	// For space-time complexity evaluation
-	static boolean firstStep=true;
+	// The step times, and the render times and populations recorded by the user interface, see getMetrics
+	private static final SimulationMetrics metrics = new SimulationMetrics();
+
+	// The Flight Recorder type of the step events: no event is made while no recording takes them
+	private static final EventType STEP_EVENT_TYPE = EventType.getEventType(StepEvent.class);
+
+	// The number of threads used by the step, see setParallelism
+	static int parallelism = Math.max(1, Integer.getInteger("conway.parallelism", 1));
+
+	// Use the vector (SIMD) step for the 2D Array when the conway.simd property asks for it, see setVectorStep
+	static boolean vectorStep = Boolean.getBoolean("conway.simd") && setVectorStep(true);
+
+	// The rule applied by the step, given by the conway.rule property (B3/S23 by default), see setRule
+	static Rule rule = Rule.selected();
+
+	// The row bitmaps used by the counting step, one set per thread so the parallel bands share nothing
+	private static final ThreadLocal<long[][]> rowScratch = new ThreadLocal<long[][]>();
 	final long MEGABYTES = 1024L*1024L;
-	long initiationTime = 0; long endingTime = 0;
 	/**********************************************************************************************
 
 	Class Attributes
@@ -38,7 +64,9 @@ public class Board {
 	 **********************************************************************************************/
 
 	// These are the major attribute values for this application
-	protected DataStructure cellIsAlive;
+	protected MemoryDataStructureInterface cellIsAlive;
+	protected Engine engine;			// The implementation used for cellIsAlive
+	protected long generation = 0;		// The number of generations since the pattern was loaded
 	
 	
 	/**********************************************************************************************
@@ -51,7 +79,7 @@ public class Board {
 	 * This is the default constructor.  We do not expect it to be used.
 	 */
 	public Board () {
-		cellIsAlive = new DataStructure(3, 3);				// Initialized to false by default;
+		this(3, 3);
 	}
 
 	/**********
@@ -59,7 +87,24 @@ public class Board {
 	 * instances of a board for the purposes of animation.
 	 */
 	public Board (int height, int width) {
-		cellIsAlive = new DataStructure(height, width);		// Initialized to false by default;
+		this(height, width, Engine.selected());
+	}
+
+	/**********
+	 * This constructor creates a board of a specific size using the specified engine.
+	 */
+	public Board (int height, int width, Engine engine) {
+		this.engine = engine;
+		cellIsAlive = engine.newDataStructure(height, width);	// Initialized to false by default;
+	}
+
+	/**********
+	 * This constructor creates a board holding an existing data structure at a given generation.
+	 */
+	private Board (MemoryDataStructureInterface cellIsAlive, Engine engine, long generation) {
+		this.engine = engine;
+		this.cellIsAlive = cellIsAlive;
+		this.generation = generation;
 	}
 
 	/**********
@@ -69,7 +114,16 @@ public class Board {
 	 * dealt with by that code.
 	 */
 	public Board (int height, int width, Scanner inputReader) {
-		cellIsAlive = new DataStructure(height, width);		// Initialized to false by default;
+		this(height, width, inputReader, Engine.selected());
+	}
+
+	/**********
+	 * This constructor creates a board of a specific size using the specified engine and initializes
+	 * it based on input from a specified scanner.
+	 */
+	public Board (int height, int width, Scanner inputReader, Engine engine) {
+		this.engine = engine;
+		cellIsAlive = engine.newDataStructure(height, width);	// Initialized to false by default;
 
 		// The input is a sequence of lines, two integer values per line. Each pair is the x
 		// and the y coordinate where a living cell should be placed.
@@ -81,8 +135,9 @@ public class Board {
 			cellIsAlive.writeDataStructure(y, x, true);	// Signal that that cell is alive
 			input.close();								// Close the Scanner
 		}
+		saveGeneration();
 		//After writing the data, calculate object size.
-		System.out.println("The size of object (2D Array) is "+fetchObjectSize()+" bytes");
+		System.out.println("The size of object (" + engine.getDisplayName() + ") is "+fetchObjectSize()+" bytes");
 	}
 
 	
@@ -98,12 +153,15 @@ public class Board {
 	 */
 	public String toString() {
 		String result = "";								// Insert the right number of zeros so the
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
 		for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {		// element in the board align with
 			if (y<10) result += "[00" + y + "] ";				// one another
 			else if (y<100) result += "[0" + y + "] ";
 			else result += "[" + y + "] ";
-			for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-				if (cellIsAlive.readDataStructure(x, y)) result += "*";	// Display an asterisk if the cell is alive
+			cellIsAlive.readRowSegment(y, 0, width, row);	// Read the whole row at once
+			for (int x = 1; x < width-1; x++)
+				if (isSet(row, x)) result += "*";			// Display an asterisk if the cell is alive
 				else result += " ";						// else display a blank
 			result += "\n";								// Append an end of line for the next row
 		}
@@ -117,17 +175,10 @@ public class Board {
 	 **********************************************************************************************/
 
 	/**********
-	 * This method places a number of black squares into a specified window pane, one for each live
-	 * cell on *this* board.
+	 * This method tells if bit x of a row bitmap is set, that is if the cell x of the row is alive.
 	 */
-	public void populateCanvas(Pane p) {
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++)
-				if (cellIsAlive.readDataStructure(x, y)) {
-					Rectangle rectangle = new Rectangle(5,5,Color.BLACK);
-					rectangle.relocate(6*x, 6*y);
-					p.getChildren().add(rectangle);
-				}
+	static boolean isSet(long[] row, int x) {
+		return (row[x >>> 6] & (1L << x)) != 0;
 	}
 
 	/**********
@@ -139,53 +190,357 @@ public class Board {
 	 * are currently alive.  If the examined cell *was* alive, then it must have at least two but
 	 * no more than three alive neighbors to stay alive.  If the examined cell *was not* alive on
 	 * the previous board, it must have exact three alive neighbors on the previous board for the
-	 * cell to be alive on *this* board.
+	 * cell to be alive on *this* board. Those are the counts of Conway's rule, B3/S23; another
+	 * rule can be set with setRule.
 	 */
 	public void step (Board previous) {
-		
-		 
-		if (firstStep) {
-			initiationTime = System.currentTimeMillis();
-
-		}
-
-		// Allocate a new copy of this board so all elements are false
-		cellIsAlive = new DataStructure (cellIsAlive.getDataStructureWidth(), cellIsAlive.getDataStructureWidth());
-
-		// Iterate through all of the elements on the previous boards, not on the boundary
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {
-
-				// Count the number of alive neighbor cells on the previous board
-				int numberAliveCells = 0;
-				if (previous.cellIsAlive.readDataStructure(x-1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y+1)) numberAliveCells++;
-
-				// If the cell was alive, it must have 2 or 3 alive neighbors to remain alive
-				if (previous.cellIsAlive.readDataStructure(x, y)) { 
-					if (numberAliveCells >= 2 && numberAliveCells <= 3)
-						this.cellIsAlive.writeDataStructure(x, y, true);
-					// If the cell was alive, and it does not have exactly 2 or 3 neighbors, it should die
-					else this.cellIsAlive.writeDataStructure(x, y, false);	
-					// if the cell was not alive, it must have exactly 3 alive neighbors to give birth
-				} else if (numberAliveCells == 3)
-					this.cellIsAlive.writeDataStructure(x, y, true);
+		StepEvent event = STEP_EVENT_TYPE.isEnabled() ? new StepEvent() : null;
+		if (event != null) event.begin();
+		long start = System.nanoTime();
+		stepGeneration(previous);
+		metrics.recordStep(start, System.nanoTime());
+		if (event != null) event.end();
+		if (event != null && event.shouldCommit()) {
+			event.generation = generation;
+			event.width = (int)cellIsAlive.getDataStructureWidth();
+			event.height = (int)cellIsAlive.getDataStructureHeight();
+			event.population = knownPopulation();
+			event.cellsVisited = cellsVisited();
+			event.engine = engine.getDisplayName();
+			event.rule = rule.toString();
+			event.commit();
+		}
+	}
+
+	/**********
+	 * This method returns the population of *this* board when the engine keeps it, and -1 otherwise, so that
+	 * the event of a step never has to count the cells
+	 */
+	private long knownPopulation() {
+		if (cellIsAlive instanceof HashLifeDataStructure) return ((HashLifeDataStructure)cellIsAlive).getPopulation();
+		if (cellIsAlive instanceof UnboundedSparseDataStructure) return ((UnboundedSparseDataStructure)cellIsAlive).getPopulation();
+		return -1;
+	}
+
+	/**********
+	 * This method returns the number of cells examined by the step that produced *this* board: what the
+	 * engines skipping cells report, every cell inside the boundary for the engines scanning the whole board,
+	 * and -1 for the engines that work on runs or quadtree nodes instead of cells
+	 */
+	private long cellsVisited() {
+		if (cellIsAlive instanceof ChangeTrackingDataStructure) return ((ChangeTrackingDataStructure)cellIsAlive).getCellsVisited();
+		if (cellIsAlive instanceof NeighbourCountDataStructure) return ((NeighbourCountDataStructure)cellIsAlive).getCellsExamined();
+		if (cellIsAlive instanceof TiledDataStructure) 
+			return (long)((TiledDataStructure)cellIsAlive).getTilesComputed() * TiledDataStructure.TILE_SIZE * TiledDataStructure.TILE_SIZE;
+		if (cellIsAlive instanceof HashLifeDataStructure || cellIsAlive instanceof UnboundedSparseDataStructure 
+				|| cellIsAlive instanceof RunLengthDataStructure) return -1;
+		return (cellIsAlive.getDataStructureHeight() - 2) * (cellIsAlive.getDataStructureWidth() - 2);
+	}
+
+	/**********
+	 * This method computes the generation that follows the previous board with the engine of this board
+	 */
+	private void stepGeneration (Board previous) {
+		generation = previous.generation + 1;
+
+		// The active frontier engine only re-examines the cells near the previous generation's changes,
+		// reusing the storage of this board when it can
+		if (cellIsAlive instanceof ChangeTrackingDataStructure && previous.cellIsAlive instanceof ChangeTrackingDataStructure) {
+			cellIsAlive = ChangeTrackingDataStructure.nextGeneration((ChangeTrackingDataStructure)cellIsAlive,
+					(ChangeTrackingDataStructure)previous.cellIsAlive, cellIsAlive.getDataStructureWidth(), 
+					cellIsAlive.getDataStructureWidth(), rule);
+			return;
+		}
+
+		// The neighbour count engine decides every cell from its own byte, reusing the storage of this board
+		if (cellIsAlive instanceof NeighbourCountDataStructure && previous.cellIsAlive instanceof NeighbourCountDataStructure) {
+			cellIsAlive = NeighbourCountDataStructure.nextGeneration((NeighbourCountDataStructure)cellIsAlive,
+					(NeighbourCountDataStructure)previous.cellIsAlive, cellIsAlive.getDataStructureWidth(), 
+					cellIsAlive.getDataStructureWidth(), rule);
+			return;
+		}
+
+		// Recycle the data structure of this board, which holds the generation before the previous one, when
+		// it has the right dimensions. Otherwise allocate a new copy of this board so all elements are false
+		long size = cellIsAlive.getDataStructureWidth();
+		if (cellIsAlive == previous.cellIsAlive || cellIsAlive.getDataStructureHeight() != size || !cellIsAlive.clearDataStructure()) {
+			if (cellIsAlive != previous.cellIsAlive) cellIsAlive.releaseDataStructure();
+			cellIsAlive = engine.newDataStructure(size, size);
+		}
+
+		// The HashLife engine advances the whole quadtree of the previous generation
+		if (cellIsAlive instanceof HashLifeDataStructure && previous.cellIsAlive instanceof HashLifeDataStructure) {
+			((HashLifeDataStructure)cellIsAlive).nextGeneration((HashLifeDataStructure)previous.cellIsAlive, rule);
+			return;
+		}
+
+		// The tiled engine only computes the tiles next to a tile that changed
+		if (cellIsAlive instanceof TiledDataStructure && previous.cellIsAlive instanceof TiledDataStructure) {
+			((TiledDataStructure)cellIsAlive).nextGeneration((TiledDataStructure)previous.cellIsAlive, rule);
+			return;
+		}
+
+		// The run-length engine computes each row from the runs of the three rows around it
+		if (cellIsAlive instanceof RunLengthDataStructure && previous.cellIsAlive instanceof RunLengthDataStructure) {
+			((RunLengthDataStructure)cellIsAlive).nextGeneration((RunLengthDataStructure)previous.cellIsAlive, rule);
+			return;
+		}
+
+		// The unbounded sparse engine steps its alive cells wherever they are, with no boundary
+		if (cellIsAlive instanceof UnboundedSparseDataStructure && previous.cellIsAlive instanceof UnboundedSparseDataStructure) {
+			((UnboundedSparseDataStructure)cellIsAlive).nextGeneration((UnboundedSparseDataStructure)previous.cellIsAlive, 
+					rule);
+			return;
+		}
+
+		// Compute the lines that are not on the boundary, split into bands that run on a fork/join pool 
+		// when parallel steps are enabled and the engine allows cells to be written concurrently
+		int lines = (int)cellIsAlive.getDataStructureHeight();
+		if (parallelism > 1 && engine.allowsParallelStep())
+			ParallelStep.run(this, previous, 1, lines-1, parallelism);
+		else stepLines(previous, 1, lines-1);
+
+		// The container engine writes the rows on bitmaps, then lets each chunk pick its most compact container
+		if (cellIsAlive instanceof ContainerDataStructure) ((ContainerDataStructure)cellIsAlive).optimizeContainers();
+		saveGeneration();
+	}
+
+	/**********
+	 * This method computes the lines fromLine up to (not including) toLine of *this* board. Each cell
+	 * only depends on the previous board, so separate bands of lines can be computed at the same time
+	 * and always give the same result.
+	 */
+	void stepLines (Board previous, int fromLine, int toLine) {
+
+		// The bit-packed engine computes 64 cells per word when both boards are bit-packed
+		if (cellIsAlive instanceof BitPackedDataStructure && previous.cellIsAlive instanceof BitPackedDataStructure) {
+			((BitPackedDataStructure)cellIsAlive).nextGeneration((BitPackedDataStructure)previous.cellIsAlive, 
+					fromLine, toLine, rule);
+			return;
+		}
+
+		// The off-heap engine runs the same adders on the words of the native segments. The engine is tested
+		// first so the class is only loaded when the jdk.incubator.foreign module is there
+		if (engine == Engine.OFF_HEAP && cellIsAlive instanceof OffHeapDataStructure 
+				&& previous.cellIsAlive instanceof OffHeapDataStructure) {
+			((OffHeapDataStructure)cellIsAlive).nextGeneration((OffHeapDataStructure)previous.cellIsAlive, 
+					fromLine, toLine, rule);
+			return;
+		}
+
+		// The mapped engine runs the same adders on the words of the mapped files
+		if (cellIsAlive instanceof MappedDataStructure && previous.cellIsAlive instanceof MappedDataStructure) {
+			((MappedDataStructure)cellIsAlive).nextGeneration((MappedDataStructure)previous.cellIsAlive, 
+					fromLine, toLine, rule);
+			return;
+		}
+
+		// The lookup table engine reads the next state of 2x2 cells from a table indexed by their 4x4 block
+		if (engine == Engine.LOOKUP_TABLE && cellIsAlive instanceof DataStructure && previous.cellIsAlive instanceof DataStructure
+				&& previous.cellIsAlive.getDataStructureWidth() == cellIsAlive.getDataStructureWidth()
+				&& previous.cellIsAlive.getDataStructureHeight() >= cellIsAlive.getDataStructureHeight()) {
+			LookupTableStep.stepLines((DataStructure)cellIsAlive, (DataStructure)previous.cellIsAlive, fromLine, toLine, 
+					rule);
+			return;
+		}
+
+		// The vector step adds up the neighbors of many cells at once from a byte-packed copy of the 2D Array
+		if (vectorStep && cellIsAlive instanceof DataStructure && previous.cellIsAlive instanceof DataStructure
+				&& previous.cellIsAlive.getDataStructureWidth() == cellIsAlive.getDataStructureWidth()
+				&& previous.cellIsAlive.getDataStructureHeight() >= cellIsAlive.getDataStructureHeight()) {
+			VectorStep.stepLines((DataStructure)cellIsAlive, (DataStructure)previous.cellIsAlive, fromLine, toLine, rule);
+			return;
+		}
+
+		// Iterate through all of the rows of the band on the previous boards, not on the boundary. The
+		// previous board is read a whole row at a time (the row above, the row itself and the row below)
+		// into bitmaps, the neighbors of 64 cells are added up at once, and the new row is written at once,
+		// rather than calling the data structure for every cell
+		Rule rule = Board.rule;
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		int words = (width + 63) >>> 6;
+		long[][] rows = rowScratch.get();
+		if (rows == null || rows[0].length != words) {
+			rows = new long[4][words];
+			rowScratch.set(rows);
+		}
+		long[] above = rows[0], row = rows[1], below = rows[2], next = rows[3];
+		for (int y = fromLine; y < toLine; y++) {
+			previous.cellIsAlive.readRowSegment(y-1, 0, width, above);
+			previous.cellIsAlive.readRowSegment(y, 0, width, row);
+			previous.cellIsAlive.readRowSegment(y+1, 0, width, below);
+			for (int i = 0; i < words; i++) {
+
+				// The neighbors to the west and east of the 64 cells, carrying the cells across the words
+				long a = above[i], b = row[i], d = below[i];
+				long aW = (a << 1) | (i > 0 ? above[i-1] >>> 63 : 0L);
+				long aE = (a >>> 1) | (i < words-1 ? above[i+1] << 63 : 0L);
+				long bW = (b << 1) | (i > 0 ? row[i-1] >>> 63 : 0L);
+				long bE = (b >>> 1) | (i < words-1 ? row[i+1] << 63 : 0L);
+				long dW = (d << 1) | (i > 0 ? below[i-1] >>> 63 : 0L);
+				long dE = (d >>> 1) | (i < words-1 ? below[i+1] << 63 : 0L);
+
+				// Count the number of alive neighbor cells on the previous board, one bit of the count per
+				// word, with the full adders of BitPackedDataStructure.nextGeneration
+				long aOnes = aW ^ a ^ aE;
+				long aTwos = (aW & a) | (aE & (aW ^ a));
+				long dOnes = dW ^ d ^ dE;
+				long dTwos = (dW & d) | (dE & (dW ^ d));
+				long bOnes = bW ^ bE;
+				long bTwos = bW & bE;
+				long ones = aOnes ^ dOnes ^ bOnes;
+				long onesCarry = (aOnes & dOnes) | (bOnes & (aOnes ^ dOnes));
+				long twosAD = aTwos ^ dTwos;
+				long twosBC = bTwos ^ onesCarry;
+				long twos = twosAD ^ twosBC;
+				long fours = (aTwos & dTwos) ^ (bTwos & onesCarry) ^ (twosAD & twosBC);
+				long eights = aTwos & dTwos & bTwos & onesCarry;
+
+				// The survival counts of the rule keep an alive cell alive (2 or 3 for B3/S23) and the birth
+				// counts bring a dead one to life (exactly 3 for B3/S23)
+				next[i] = rule.nextCells(ones, twos, fours, eights, b);
 			}
-		
-		if (firstStep) {
-			firstStep=false;
+			// Cells without one of those counts are written dead, as are the boundary cells of the row
+			next[0] &= ~1L;
+			next[(width-1) >>> 6] &= (1L << (width-1)) - 1;
+			this.cellIsAlive.writeRowSegment(y, 0, width, next);
+		}
+	}
+
+	/**********
+	 * This method sets the number of threads used by the step of every board. A value of 1 (the
+	 * default, or the conway.parallelism system property) keeps the step single-threaded.
+	 */
+	public static void setParallelism(int threads) {
+		parallelism = Math.max(1, threads);
+	}
+
+	/**********
+	 * This method sets the rule applied by the step of every board, e.g. Rule.parse("B36/S23").
+	 */
+	public static void setRule(Rule newRule) {
+		rule = newRule;
+	}
+
+	/**********
+	 * Getter for the rule applied by the step
+	 */
+	public static Rule getRule() {
+		return rule;
+	}
+
+	/**********
+	 * This method turns the vector (SIMD) step of the 2D Array on or off. The vector step needs the
+	 * jdk.incubator.vector module (java --add-modules jdk.incubator.vector); when it is not there
+	 * the scalar step keeps being used.
+	 * 
+	 * @return	true when the vector step is now in use
+	 */
+	public static boolean setVectorStep(boolean useVectorStep) {
+		vectorStep = false;
+		if (!useVectorStep) return false;
+		if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			System.out.println("The jdk.incubator.vector module is not available, using the scalar step");
+			return false;
+		}
+		vectorStep = true;
+		return true;
+	}
+
+	/**********
+	 * This method advances *this* board to a later generation. The HashLife engine gets there in a number of
+	 * memoized jumps that grows with the number of digits of the generation, the other engines step one
+	 * generation at a time using a scratch board.
+	 * 
+	 * @param target	The generation to jump to, counted from the loaded pattern
+	 */
+	public void jumpToGeneration(long target) {
+		if (target <= generation) return;					// The simulation cannot go backwards
+		if (cellIsAlive instanceof HashLifeDataStructure) {
+			((HashLifeDataStructure)cellIsAlive).advance(target - generation, rule);
+			generation = target;
+			return;
+		}
+		Board scratch = new Board((int)cellIsAlive.getDataStructureHeight(), (int)cellIsAlive.getDataStructureWidth(), engine);
+		Board current = this;
+		while (current.generation < target) {
+			Board next = current == this ? scratch : this;
+			next.step(current);
+			current = next;
+		}
+		if (current != this) {
+			cellIsAlive.releaseDataStructure();
+			cellIsAlive = scratch.cellIsAlive;
+			generation = scratch.generation;
+		} else scratch.release();
+	}
+
+	/**********
+	 * This method records in the file of a mapped board that it now holds a complete generation, the one
+	 * resume starts from after a restart.
+	 */
+	private void saveGeneration() {
+		if (cellIsAlive instanceof MappedDataStructure) ((MappedDataStructure)cellIsAlive).setGeneration(generation);
+	}
+
+	/**********
+	 * This method creates a board from the mapped file holding the latest generation saved for a board of
+	 * this width, as it was when the program stopped.
+	 * 
+	 * @return	the resumed board, or null when no generation was saved
+	 */
+	public static Board resume(int width) {
+		MappedDataStructure saved = MappedDataStructure.resume(width);
+		if (saved == null) return null;
+		Board board = new Board(saved, Engine.MAPPED, saved.getGeneration());
+		System.out.println("Resumed generation " + board.generation + " from the mapped files");
+		return board;
+	}
+
+	/**********
+	 * This method frees the storage of *this* board that is outside of the Java heap. It is called when the
+	 * board is dropped, and the board must not be used afterwards.
+	 */
+	public void release() {
+		cellIsAlive.releaseDataStructure();
+	}
+
+	/**********
+	 * Getter for the number of generations since the pattern was loaded
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**********
+	 * Getter for the number of alive cells of *this* board, counted a whole row at a time
+	 */
+	public long getPopulation() {
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
+		long population = 0;
+		for (int y = 0; y < cellIsAlive.getDataStructureHeight(); y++) {
+			cellIsAlive.readRowSegment(y, 0, width, row);
+			for (long word: row) population += Long.bitCount(word);
 		}
+		return population;
+	}
 
+	/**********
+	 * Getter for the Zobrist hash of *this* board, used to detect that the simulation has settled
+	 */
+	public long getBoardHash() {
+		return cellIsAlive.getBoardHash();
 	}
-	protected static void firstStepIsDone() {
-		firstStep=false;
+
+	/**********
+	 * Getter for the metrics of the simulation: the time of every step of every board, and what the user
+	 * interface records
+	 */
+	public static SimulationMetrics getMetrics() {
+		return metrics;
 	}
+
 	/***
 	 * Getter for Size of Object
 	 * @return Size of Object
@@ -195,12 +550,34 @@ public class Board {
 		return cellIsAlive.getDataStructureSize();
 	}
 	/***
-	 *  This routine calculates the time taken for processing 100 Generations
+	 *  This routine prints the metrics of the simulation so far, and what the engine tells about its work
 	 */
 	public void fetchPerformance_Time() {
-		endingTime = System.currentTimeMillis();
-		System.out.println(("Time taken for processing 100 generations (Using 2D Array): "
-		+(endingTime-initiationTime)+" nanoseconds"));		
+		System.out.println("Performance at generation " + generation + " (Using " + engine.getDisplayName() + ", " + rule + ")");
+		System.out.print(metrics.report());
+		if (cellIsAlive instanceof ChangeTrackingDataStructure) {
+			ChangeTrackingDataStructure tracked = (ChangeTrackingDataStructure)cellIsAlive;
+			System.out.println("Cells visited: " + tracked.getTotalCellsVisited() + " of the " 
+					+ tracked.getTotalFullScanCells() + " cells of a full scan (last generation: "
+					+ tracked.getCellsVisited() + ")");
+		}
+		if (cellIsAlive instanceof NeighbourCountDataStructure)
+			System.out.println("Cells examined in the last generation: " 
+					+ ((NeighbourCountDataStructure)cellIsAlive).getCellsExamined() + " of " 
+					+ cellIsAlive.getDataStructureHeight() * cellIsAlive.getDataStructureWidth());
+		if (cellIsAlive instanceof TiledDataStructure) {
+			TiledDataStructure tiled = (TiledDataStructure)cellIsAlive;
+			System.out.println("Tiles computed in the last generation: " + tiled.getTilesComputed() + " of " 
+					+ tiled.getNumberOfTiles());
+		}
+		if (cellIsAlive instanceof RunLengthDataStructure)
+			System.out.println("Runs of alive cells: " + ((RunLengthDataStructure)cellIsAlive).getNumberOfRuns());
+		if (cellIsAlive instanceof ContainerDataStructure)
+			System.out.println("Containers: " + ((ContainerDataStructure)cellIsAlive).describeContainers() + ", "
+					+ cellIsAlive.getDataStructureSize() + " bytes");
+		if (cellIsAlive instanceof UnboundedSparseDataStructure)
+			System.out.println("Population, including the cells outside of the window: " 
+					+ ((UnboundedSparseDataStructure)cellIsAlive).getPopulation());
 		
 	}
 
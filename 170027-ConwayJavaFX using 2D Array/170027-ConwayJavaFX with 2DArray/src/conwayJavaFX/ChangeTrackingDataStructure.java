@@ -0,0 +1,252 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The ChangeTrackingDataStructure Class: Active Frontier Implementation </b>
+ * <p> Description: This data structure is a flat boolean array that also records which cells were born or
+ * died to reach its current state. A cell can only change in the next generation when something in its 3x3
+ * neighbourhood changed in this one, so the step only re-examines the recorded cells and their 8 neighbours
+ * (the active frontier). Everything else keeps its state, and the cost of a step grows with the activity on
+ * the board instead of with its area.
+ *
+ * <p> The Board alternates between two boards, so the data structure of the board being stepped holds the
+ * generation before the previous one. Instead of allocating a new array, the step brings that array up to
+ * date by replaying the previous generation's changes and then evaluates the frontier on it. Each state is
+ * identified by a stamp, so the replay is only done when the changes really are relative to that array;
+ * otherwise a fresh copy of the previous generation is made.
+ *
+ * <p> The cell addressing is the same as the 2D Array implementation, so both produce identical boards.
+ * @author JSGREWAL
+ */
+
+public class ChangeTrackingDataStructure implements MemoryDataStructureInterface {
+
+	// Every state of every instance gets its own stamp; 0 is the state of an empty board
+	private static long nextStamp = 1;
+
+	private boolean[] cellIsAlive;		// The cells, line after line
+	private int[] changedCells;			// The cells that changed to reach this state
+	private int numberOfChanges;
+	private boolean[] isQueued;			// Used to visit each cell of the frontier only once
+	private int[] queuedCells;
+	private int numberOfQueued;
+	private long stamp = 0;				// Identifies the current contents of cellIsAlive
+	private long baseStamp = 0;			// Identifies the state the changes are relative to
+	private long boardHash = 0;			// The Zobrist hash of the alive cells, flipped by every change
+	private int h;
+	private int w;
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	// The counters used to compare the frontier with a full scan of the board
+	private long cellsVisited;			// The cells evaluated by the last step
+	private long totalCellsVisited;		// The cells evaluated since the pattern was loaded
+	private long totalFullScanCells;	// The cells a full scan would have evaluated since then
+
+	/***
+	 * Constructs the array of dimensions height x width, with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public ChangeTrackingDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		w = (int)width;
+		cellIsAlive = new boolean[h * w];
+		isQueued = new boolean[h * w];
+		changedCells = new int[64];
+		queuedCells = new int[64];
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w) throw new ArrayIndexOutOfBoundsException(r);
+		return cellIsAlive[c * w + r];
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure. A cell that changes is recorded so the next step re-examines it.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w) throw new ArrayIndexOutOfBoundsException(r);
+		int cell = c * w + r;
+		if (cellIsAlive[cell] == isAlive) return;
+		cellIsAlive[cell] = isAlive;
+		boardHash ^= CycleDetector.cellKey(r, c);
+		recordChange(cell);
+		stamp = nextStamp++;			// The contents no longer match any earlier state
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return cellIsAlive.length + isQueued.length + (changedCells.length + queuedCells.length) * 4L;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the changes
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		return boardHash;
+	}
+
+	/***
+	 * Getter for the number of cells evaluated by the step that produced this generation
+	 * @return the number of cells visited
+	 */
+	public long getCellsVisited() {
+		return cellsVisited;
+	}
+
+	/***
+	 * Getter for the number of cells evaluated by all of the steps since the pattern was loaded
+	 * @return the total number of cells visited
+	 */
+	public long getTotalCellsVisited() {
+		return totalCellsVisited;
+	}
+
+	/***
+	 * Getter for the number of cells a full scan of the board would have evaluated since the pattern was loaded
+	 * @return the total number of cells of the full scans
+	 */
+	public long getTotalFullScanCells() {
+		return totalFullScanCells;
+	}
+
+	private void recordChange(int cell) {
+		if (numberOfChanges == changedCells.length) changedCells = Arrays.copyOf(changedCells, numberOfChanges * 2);
+		changedCells[numberOfChanges++] = cell;
+	}
+
+	private void queue(int cell) {
+		if (isQueued[cell]) return;
+		isQueued[cell] = true;
+		if (numberOfQueued == queuedCells.length) queuedCells = Arrays.copyOf(queuedCells, numberOfQueued * 2);
+		queuedCells[numberOfQueued++] = cell;
+	}
+
+	/***
+	 * This routine computes the generation that follows the previous one. The data structure of the board being
+	 * stepped is reused when it holds the state the previous generation's changes are relative to, otherwise a
+	 * new one is allocated.
+	 * @param reusable The data structure the stepped board currently holds
+	 * @param previous The data structure holding the previous generation
+	 * @param height The height of the new generation
+	 * @param width The width of the new generation
+	 * @param rule The rule giving the next state of a cell
+	 * @return The data structure holding the new generation
+	 */
+	public static ChangeTrackingDataStructure nextGeneration(ChangeTrackingDataStructure reusable,
+			ChangeTrackingDataStructure previous, long height, long width, Rule rule) {
+		ChangeTrackingDataStructure next;
+		if (reusable != previous && reusable.stamp == previous.baseStamp && reusable.numberOfRows == height
+				&& reusable.numberOfColumns == width && previous.numberOfRows == height && previous.numberOfColumns == width) {
+			// Replay the changes of the previous generation, so the array holds the previous generation
+			next = reusable;
+			for (int i = 0; i < previous.numberOfChanges; i++) {
+				int cell = previous.changedCells[i];
+				next.cellIsAlive[cell] = previous.cellIsAlive[cell];
+			}
+			next.boardHash = previous.boardHash;
+		} else {
+			// Start from a copy of the previous generation
+			next = new ChangeTrackingDataStructure(height, width);
+			int lines = Math.min(next.h, previous.h);
+			for (int line = 0; line < lines; line++)
+				System.arraycopy(previous.cellIsAlive, line * previous.w, next.cellIsAlive, line * next.w, Math.min(next.w, previous.w));
+			for (int cell = 0; cell < next.cellIsAlive.length; cell++)
+				if (next.cellIsAlive[cell]) next.boardHash ^= CycleDetector.cellKey(cell % next.w, cell / next.w);
+		}
+		next.numberOfChanges = 0;
+
+		// Queue each changed cell of the previous generation and its 8 neighbours, once
+		for (int i = 0; i < previous.numberOfChanges; i++) {
+			int cell = previous.changedCells[i];
+			int c = cell / previous.w;
+			int r = cell % previous.w;
+			for (int dc = -1; dc <= 1; dc++)
+				for (int dr = -1; dr <= 1; dr++)
+					if (c + dc >= 0 && c + dc < next.h && r + dr >= 0 && r + dr < next.w) next.queue((c + dc) * next.w + r + dr);
+		}
+
+		// Apply the rule to the frontier; cells on the boundary are always dead
+		for (int i = 0; i < next.numberOfQueued; i++) {
+			int cell = next.queuedCells[i];
+			next.isQueued[cell] = false;
+			int c = cell / next.w;
+			int r = cell % next.w;
+			boolean isAlive = false;
+			if (c >= 1 && c < next.h - 1 && r >= 1 && r < next.w - 1) {
+				int numberAliveCells = 0;
+				if (previous.cell(c-1, r-1)) numberAliveCells++;
+				if (previous.cell(c-1, r)) numberAliveCells++;
+				if (previous.cell(c-1, r+1)) numberAliveCells++;
+				if (previous.cell(c, r-1)) numberAliveCells++;
+				if (previous.cell(c, r+1)) numberAliveCells++;
+				if (previous.cell(c+1, r-1)) numberAliveCells++;
+				if (previous.cell(c+1, r)) numberAliveCells++;
+				if (previous.cell(c+1, r+1)) numberAliveCells++;
+				isAlive = rule.isAlive(numberAliveCells, previous.cell(c, r));
+			}
+			if (next.cellIsAlive[cell] != isAlive) {
+				next.cellIsAlive[cell] = isAlive;
+				next.boardHash ^= CycleDetector.cellKey(r, c);
+				next.recordChange(cell);
+			}
+		}
+
+		// Update the counters
+		next.cellsVisited = next.numberOfQueued;
+		next.totalCellsVisited = previous.totalCellsVisited + next.numberOfQueued;
+		next.totalFullScanCells = previous.totalFullScanCells + Math.max(0, (long)(next.h - 2) * (next.w - 2));
+		next.numberOfQueued = 0;
+
+		// The changes just recorded lead from the previous generation to this new state
+		next.baseStamp = previous.stamp;
+		next.stamp = nextStamp++;
+		return next;
+	}
+
+	/***
+	 * Fetches a cell by line and position, treating anything outside of the board as a dead cell
+	 */
+	private boolean cell(int line, int position) {
+		if (line < 0 || line >= h || position < 0 || position >= w) return false;
+		return cellIsAlive[line * w + position];
+	}
+
+}
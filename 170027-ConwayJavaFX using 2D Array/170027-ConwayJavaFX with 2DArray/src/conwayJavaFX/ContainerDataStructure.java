@@ -0,0 +1,516 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The ContainerDataStructure Class: Hybrid Containers in the Style of Roaring Bitmaps </b>
+ * <p> Description: The board is split into chunks of 256 x 256 cells, 2^16 cells each, and every chunk picks the
+ * container that stores its alive cells in the least memory, the way Roaring bitmaps do:
+ * <ul>
+ * <li> an array container, the sorted 16-bit positions of the alive cells, 2 bytes per alive cell, for the
+ * near-empty chunks; </li>
+ * <li> a bitmap container, one bit per cell in 1024 longs, 8 KB whatever the population, for the dense soups; </li>
+ * <li> a run container, the sorted runs of alive cells as (start, length - 1) pairs, 4 bytes per run, for the
+ * striped chunks such as walls and wires. </li>
+ * </ul>
+ * A chunk without any alive cell has no container at all. An array container becomes a bitmap when it holds more
+ * than 4096 cells, the point where the bitmap is smaller, and after every step each chunk is converted to the
+ * most compact of the three, so the containers follow the density of the board. The choice is reported by
+ * getDataStructureSize, which adds up the bytes of each container, and by describeContainers.
+ *
+ * <p> The position of a cell in its chunk is the line within the chunk times 256 plus the cell within the line,
+ * so a line of a chunk is 256 consecutive positions: 4 words of a bitmap container. The Board steps this data
+ * structure a whole row at a time with readRowSegment and writeRowSegment. The cell addressing is the same as the
+ * 2D Array implementation, so both produce identical boards. The containers of a generation are built for its
+ * cells, so the data structure is not recycled by the step.
+ * @author JSGREWAL
+ */
+
+public class ContainerDataStructure implements MemoryDataStructureInterface {
+
+	private static final int CHUNK_SHIFT = 8;				// A chunk is 256 cells along each side
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int MAXIMUM_ARRAY = 4096;			// Beyond this an array container is larger than a bitmap
+
+	private Container[] chunks;			// The containers, chunk line after chunk line; null when all cells are dead
+	private long[] chunkHashes;			// The Zobrist hash of the alive cells of each chunk
+	private int chunksAcross;
+	private int chunksDown;
+	private int h;
+	private int w;
+	private long numberOfRows;
+	private long numberOfColumns;
+	private long[] line = new long[CHUNK_SIZE / 64];		// One line of a chunk, used by the row segments
+	private long[] lineBefore = new long[CHUNK_SIZE / 64];	// The same line before it is written
+
+	/***
+	 * Constructs the board of dimensions height x width, without any container
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public ContainerDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		w = (int)width;
+		chunksAcross = (w + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+		chunksDown = (h + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+		chunks = new Container[chunksAcross * chunksDown];
+		chunkHashes = new long[chunks.length];
+	}
+
+	/***
+	 * The container of a chunk and the operations every kind of container provides. The operations that change
+	 * the cells return the container that holds the result, which is a new one when the kind has to change.
+	 */
+	private static abstract class Container {
+
+		abstract boolean contains(int position);
+
+		abstract Container add(int position);
+
+		abstract Container remove(int position);
+
+		abstract int cardinality();
+
+		abstract long sizeInBytes();
+
+		/***
+		 * Fills the 4 words of a line of the chunk, bit i of the line being the position line * 256 + i
+		 */
+		abstract void readLine(int line, long[] words);
+
+		abstract BitmapContainer toBitmap();
+	}
+
+	/***
+	 * The sorted positions of the alive cells
+	 */
+	private static final class ArrayContainer extends Container {
+
+		private char[] positions = new char[4];
+		private int size;
+
+		private int lowerBound(int position) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (positions[middle] < position) low = middle + 1;
+				else high = middle;
+			}
+			return low;
+		}
+
+		boolean contains(int position) {
+			int i = lowerBound(position);
+			return i < size && positions[i] == position;
+		}
+
+		Container add(int position) {
+			int i = lowerBound(position);
+			if (i < size && positions[i] == position) return this;
+			if (size == MAXIMUM_ARRAY) return toBitmap().add(position);
+			if (size == positions.length) positions = Arrays.copyOf(positions, Math.min(MAXIMUM_ARRAY, size * 2));
+			System.arraycopy(positions, i, positions, i + 1, size - i);
+			positions[i] = (char)position;
+			size++;
+			return this;
+		}
+
+		Container remove(int position) {
+			int i = lowerBound(position);
+			if (i == size || positions[i] != position) return this;
+			System.arraycopy(positions, i + 1, positions, i, size - i - 1);
+			size--;
+			return this;
+		}
+
+		int cardinality() {
+			return size;
+		}
+
+		long sizeInBytes() {
+			return positions.length * 2L;
+		}
+
+		void readLine(int line, long[] words) {
+			Arrays.fill(words, 0L);
+			int first = line << CHUNK_SHIFT;
+			for (int i = lowerBound(first); i < size && positions[i] < first + CHUNK_SIZE; i++)
+				words[(positions[i] - first) >>> 6] |= 1L << positions[i];
+		}
+
+		BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+			for (int i = 0; i < size; i++) bitmap.words[positions[i] >>> 6] |= 1L << positions[i];
+			bitmap.cardinality = size;
+			return bitmap;
+		}
+	}
+
+	/***
+	 * One bit per cell of the chunk
+	 */
+	private static final class BitmapContainer extends Container {
+
+		private final long[] words = new long[(CHUNK_SIZE * CHUNK_SIZE) / 64];
+		private int cardinality;
+
+		boolean contains(int position) {
+			return (words[position >>> 6] & (1L << position)) != 0;
+		}
+
+		Container add(int position) {
+			if (!contains(position)) {
+				words[position >>> 6] |= 1L << position;
+				cardinality++;
+			}
+			return this;
+		}
+
+		Container remove(int position) {
+			if (contains(position)) {
+				words[position >>> 6] &= ~(1L << position);
+				cardinality--;
+			}
+			return this;
+		}
+
+		int cardinality() {
+			return cardinality;
+		}
+
+		long sizeInBytes() {
+			return words.length * 8L;
+		}
+
+		void readLine(int line, long[] words) {
+			System.arraycopy(this.words, line * (CHUNK_SIZE / 64), words, 0, CHUNK_SIZE / 64);
+		}
+
+		/***
+		 * Replaces the 4 words of a line of the chunk
+		 */
+		void writeLine(int line, long[] words) {
+			for (int i = 0; i < CHUNK_SIZE / 64; i++) {
+				int index = line * (CHUNK_SIZE / 64) + i;
+				cardinality += Long.bitCount(words[i]) - Long.bitCount(this.words[index]);
+				this.words[index] = words[i];
+			}
+		}
+
+		BitmapContainer toBitmap() {
+			return this;
+		}
+
+		/***
+		 * The number of runs of alive cells, counted from the starts of runs within and across the words
+		 */
+		int numberOfRuns() {
+			int runs = 0;
+			long carry = 0;						// The last cell of the previous word, shifted in as bit 0
+			for (long word: words) {
+				runs += Long.bitCount(word & ~((word << 1) | carry));
+				carry = word >>> 63;
+			}
+			return runs;
+		}
+
+		/***
+		 * Converts the bitmap to the most compact of the three kinds of container, or null when it is empty
+		 */
+		Container optimize() {
+			if (cardinality == 0) return null;
+			int runs = numberOfRuns();
+			long arrayBytes = cardinality * 2L;
+			long runBytes = runs * 4L;
+			if (runBytes < arrayBytes && runBytes < sizeInBytes()) return toRuns(runs);
+			if (arrayBytes < sizeInBytes()) return toArray();
+			return this;
+		}
+
+		private ArrayContainer toArray() {
+			ArrayContainer array = new ArrayContainer();
+			array.positions = new char[cardinality];
+			for (int i = 0; i < words.length; i++)
+				for (long word = words[i]; word != 0; word &= word - 1)
+					array.positions[array.size++] = (char)((i << 6) + Long.numberOfTrailingZeros(word));
+			return array;
+		}
+
+		private RunContainer toRuns(int numberOfRuns) {
+			RunContainer runs = new RunContainer();
+			runs.runs = new char[2 * numberOfRuns];
+			int start = -1;
+			for (int position = 0; position <= CHUNK_SIZE * CHUNK_SIZE; position++) {
+				boolean isAlive = position < CHUNK_SIZE * CHUNK_SIZE && contains(position);
+				if (isAlive && start < 0) start = position;
+				else if (!isAlive && start >= 0) {
+					runs.runs[2 * runs.numberOfRuns] = (char)start;
+					runs.runs[2 * runs.numberOfRuns + 1] = (char)(position - start - 1);
+					runs.numberOfRuns++;
+					start = -1;
+				}
+				// Skip the dead words at once
+				if (start < 0 && (position & 63) == 63 && position + 1 < CHUNK_SIZE * CHUNK_SIZE
+						&& words[(position + 1) >>> 6] == 0) position += 64;
+			}
+			runs.cardinality = cardinality;
+			return runs;
+		}
+	}
+
+	/***
+	 * The sorted runs of alive cells, each a start and a length minus one
+	 */
+	private static final class RunContainer extends Container {
+
+		private char[] runs;
+		private int numberOfRuns;
+		private int cardinality;
+
+		boolean contains(int position) {
+			int low = 0;
+			int high = numberOfRuns;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (runs[2 * middle] <= position) low = middle + 1;
+				else high = middle;
+			}
+			return low > 0 && position <= runs[2 * (low - 1)] + runs[2 * (low - 1) + 1];
+		}
+
+		/***
+		 * A write is made on the most compact of the array and bitmap forms; the runs come back after the step
+		 */
+		Container add(int position) {
+			if (contains(position)) return this;
+			return compactWithoutRuns().add(position);
+		}
+
+		Container remove(int position) {
+			if (!contains(position)) return this;
+			return compactWithoutRuns().remove(position);
+		}
+
+		private Container compactWithoutRuns() {
+			BitmapContainer bitmap = toBitmap();
+			return cardinality < MAXIMUM_ARRAY ? bitmap.toArray() : bitmap;
+		}
+
+		int cardinality() {
+			return cardinality;
+		}
+
+		long sizeInBytes() {
+			return runs.length * 2L;
+		}
+
+		void readLine(int line, long[] words) {
+			Arrays.fill(words, 0L);
+			int first = line << CHUNK_SHIFT;
+			for (int k = 0; k < numberOfRuns; k++) {
+				int start = Math.max(first, runs[2 * k]);
+				int end = Math.min(first + CHUNK_SIZE, runs[2 * k] + runs[2 * k + 1] + 1);
+				for (int position = start; position < end; position++) words[(position - first) >>> 6] |= 1L << position;
+			}
+		}
+
+		BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+			for (int k = 0; k < numberOfRuns; k++)
+				for (int position = runs[2 * k]; position <= runs[2 * k] + runs[2 * k + 1]; position++)
+					bitmap.words[position >>> 6] |= 1L << position;
+			bitmap.cardinality = cardinality;
+			return bitmap;
+		}
+	}
+
+	/***
+	 * The index of the chunk of a cell
+	 */
+	private int chunkOf(int r, int c) {
+		return (c >>> CHUNK_SHIFT) * chunksAcross + (r >>> CHUNK_SHIFT);
+	}
+
+	/***
+	 * The position of a cell in its chunk
+	 */
+	private static int positionOf(int r, int c) {
+		return ((c & (CHUNK_SIZE - 1)) << CHUNK_SHIFT) | (r & (CHUNK_SIZE - 1));
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		Container chunk = chunks[chunkOf(r, c)];
+		return chunk != null && chunk.contains(positionOf(r, c));
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure. The chunk gets an array container on its first alive cell, and loses its container with
+	 * its last one.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		int t = chunkOf(r, c);
+		Container chunk = chunks[t];
+		if (isAlive != (chunk != null && chunk.contains(positionOf(r, c)))) chunkHashes[t] ^= CycleDetector.cellKey(r, c);
+		if (isAlive) chunks[t] = (chunk == null ? new ArrayContainer() : chunk).add(positionOf(r, c));
+		else if (chunk != null) {
+			chunk = chunk.remove(positionOf(r, c));
+			chunks[t] = chunk.cardinality() == 0 ? null : chunk;
+		}
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the bytes of the container each chunk has chosen, plus a
+	 * reference and a hash for every chunk
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		long size = chunks.length * 12L;
+		for (Container chunk: chunks) if (chunk != null) size += chunk.sizeInBytes();
+		return size;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes one chunk at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long chunkHash: chunkHashes) hash ^= chunkHash;
+		return hash;
+	}
+
+	/***
+	 * This routine describes the containers chosen by the chunks
+	 * @return the number of chunks using each kind of container, and the empty ones
+	 */
+	public String describeContainers() {
+		int arrays = 0;
+		int bitmaps = 0;
+		int runs = 0;
+		for (Container chunk: chunks) {
+			if (chunk instanceof ArrayContainer) arrays++;
+			else if (chunk instanceof BitmapContainer) bitmaps++;
+			else if (chunk instanceof RunContainer) runs++;
+		}
+		return arrays + " array, " + bitmaps + " bitmap, " + runs + " run, " + (chunks.length - arrays - bitmaps - runs)
+				+ " empty of " + chunks.length + " chunks";
+	}
+
+	/***
+	 * This routine converts the container of every chunk to the most compact of the array, bitmap and run forms
+	 * for the cells it holds now. The Board calls it once the step has written the new generation.
+	 */
+	public void optimizeContainers() {
+		for (int t = 0; t < chunks.length; t++)
+			if (chunks[t] != null) chunks[t] = chunks[t].toBitmap().optimize();
+	}
+
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, one line of a chunk (256 cells) at a time
+	 * (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		int c = (int)col;
+		int from = (int)fromRow;
+		for (int chunkCol = from >>> CHUNK_SHIFT; chunkCol <= (from + numberOfCells - 1) >>> CHUNK_SHIFT; chunkCol++) {
+			Container chunk = chunks[(c >>> CHUNK_SHIFT) * chunksAcross + chunkCol];
+			if (chunk == null) continue;
+			chunk.readLine(c & (CHUNK_SIZE - 1), line);
+			for (int i = 0; i < line.length; i++) {
+				if (line[i] == 0) continue;
+				// Place the 64 cells starting at r in the bitmap, whose bit 0 is the cell fromRow
+				int offset = (chunkCol << CHUNK_SHIFT) + (i << 6) - from;
+				long word = line[i];
+				if (offset < 0) {
+					if (offset <= -64) continue;
+					word >>>= -offset;
+					offset = 0;
+				}
+				if (offset >= numberOfCells) break;
+				if (numberOfCells - offset < 64) word &= (1L << (numberOfCells - offset)) - 1;
+				bitmap[offset >>> 6] |= word << offset;
+				if ((offset & 63) != 0 && (offset >>> 6) + 1 < bitmap.length) bitmap[(offset >>> 6) + 1] |= word >>> (64 - (offset & 63));
+			}
+		}
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap, one line of a chunk at a time (see
+	 * MemoryDataStructureInterface.writeRowSegment). The lines are written on bitmap containers, which
+	 * optimizeContainers brings back to the most compact form.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		int c = (int)col;
+		int from = (int)fromRow;
+		for (int chunkCol = from >>> CHUNK_SHIFT; numberOfCells > 0 && chunkCol <= (from + numberOfCells - 1) >>> CHUNK_SHIFT; chunkCol++) {
+			int t = (c >>> CHUNK_SHIFT) * chunksAcross + chunkCol;
+			int first = Math.max(from, chunkCol << CHUNK_SHIFT);
+			int end = Math.min(from + numberOfCells, (chunkCol + 1) << CHUNK_SHIFT);
+
+			// Gather the new line of the chunk, keeping the cells outside of the segment
+			if (chunks[t] != null) chunks[t].readLine(c & (CHUNK_SIZE - 1), line);
+			else Arrays.fill(line, 0L);
+			System.arraycopy(line, 0, lineBefore, 0, line.length);
+			boolean isEmpty = true;
+			for (int r = first; r < end; r++) {
+				int i = r - from;
+				int bit = r & (CHUNK_SIZE - 1);
+				if ((bitmap[i >>> 6] & (1L << i)) != 0) line[bit >>> 6] |= 1L << bit;
+				else line[bit >>> 6] &= ~(1L << bit);
+			}
+			for (long word: line) if (word != 0) isEmpty = false;
+			if (isEmpty && chunks[t] == null) continue;
+			for (int i = 0; i < line.length; i++)
+				if (line[i] != lineBefore[i])
+					chunkHashes[t] ^= CycleDetector.wordKey(line[i] ^ lineBefore[i], (chunkCol << CHUNK_SHIFT) + (i << 6), c);
+
+			BitmapContainer chunk = chunks[t] == null ? new BitmapContainer() : chunks[t].toBitmap();
+			chunk.writeLine(c & (CHUNK_SIZE - 1), line);
+			chunks[t] = chunk.cardinality() == 0 ? null : chunk;
+		}
+	}
+
+}
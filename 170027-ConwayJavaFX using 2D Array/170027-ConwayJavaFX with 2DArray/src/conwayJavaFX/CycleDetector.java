@@ -0,0 +1,130 @@
+package conwayJavaFX;
+
+/***
+ * <b> The CycleDetector Class: Cycle and Stabilization Detection From Board Hashes </b>
+ * <p> Description: Every board has a Zobrist hash: each cell has its own pseudo-random 64-bit key and the hash of
+ * a board is the exclusive or of the keys of its alive cells. Birth and death of a cell both flip its key, so the
+ * data structures keep the hash up to date on every write instead of rescanning the board.
+ *
+ * <p> The detector remembers the hashes of the last generations in a bounded history table. When the hash of a
+ * new generation is already in the table, the board has come back to an earlier state and, since the rule is
+ * deterministic, will repeat the same generations forever: the period is the distance between the two. A period
+ * of 1 is a static board, and a static board whose hash is 0 is empty.
+ *
+ * <p> The keys are computed from the cell coordinates by a mixing function rather than stored in a table of
+ * random numbers, so they cost no memory whatever the size of the board.
+ * @author JSGREWAL
+ */
+
+public class CycleDetector {
+
+	public static final int DEFAULT_HISTORY = 1024;	// Generations remembered, so the longest detectable period
+
+	private long[] historyHashes;				// The hashes of the last generations, a ring overwriting the oldest
+	private long[] historyGenerations;
+	private int nextEntry;
+	private int numberOfEntries;
+	private long period = 0;					// 0 until a cycle is found
+	private long cycleStart;					// The first generation of the detected cycle
+	private boolean isEmpty;
+
+	/***
+	 * Constructs a detector remembering the default number of generations
+	 */
+	public CycleDetector() {
+		this(DEFAULT_HISTORY);
+	}
+
+	/***
+	 * Constructs a detector remembering a number of generations
+	 * @param history The size of the history table
+	 */
+	public CycleDetector(int history) {
+		historyHashes = new long[Math.max(1, history)];
+		historyGenerations = new long[historyHashes.length];
+	}
+
+	/***
+	 * This routine computes the Zobrist key of a cell. The key is a pseudo-random function of the coordinates
+	 * (the finalizer of SplitMix64), so every cell has a well spread, fixed key.
+	 * @param row The row index
+	 * @param col The col index
+	 * @return The key of the cell
+	 */
+	public static long cellKey(long row, long col) {
+		long z = (row << 32 ^ col) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/***
+	 * This routine computes the exclusive or of the keys of the cells set in a word of a line, so a data
+	 * structure storing 64 cells per word can update its hash with the bits that changed.
+	 * @param bits The cells of the word, bit i being the row firstRow + i
+	 * @param firstRow The row index of bit 0 of the word
+	 * @param col The col index shared by the cells of the word
+	 * @return The exclusive or of the keys of the cells set in bits
+	 */
+	public static long wordKey(long bits, long firstRow, long col) {
+		long key = 0;
+		for (; bits != 0; bits &= bits - 1) key ^= cellKey(firstRow + Long.numberOfTrailingZeros(bits), col);
+		return key;
+	}
+
+	/***
+	 * This routine records the hash of a generation. Once a cycle has been found the later generations are
+	 * not recorded any more.
+	 * @param generation The generation of the board
+	 * @param hash The hash of the board
+	 * @return The period of the cycle, or 0 while no cycle has been found
+	 */
+	public long record(long generation, long hash) {
+		if (period > 0) return period;
+
+		// The history is short, so a scan of the primitive ring finds the earlier generation without boxing
+		for (int i = 0; i < numberOfEntries; i++) {
+			if (historyHashes[i] == hash && historyGenerations[i] < generation) {
+				period = generation - historyGenerations[i];
+				cycleStart = historyGenerations[i];
+				isEmpty = hash == 0 && period == 1;
+				return period;
+			}
+		}
+
+		// Overwrite the oldest generation when the table is full
+		if (numberOfEntries < historyHashes.length) numberOfEntries++;
+		historyHashes[nextEntry] = hash;
+		historyGenerations[nextEntry] = generation;
+		nextEntry = (nextEntry + 1) % historyHashes.length;
+		return 0;
+	}
+
+	/***
+	 * Getter for the period of the detected cycle
+	 * @return the period, or 0 when no cycle has been found
+	 */
+	public long getPeriod() {
+		return period;
+	}
+
+	/***
+	 * Getter for the first generation of the detected cycle
+	 * @return the generation the board first had the repeated state
+	 */
+	public long getCycleStart() {
+		return cycleStart;
+	}
+
+	/***
+	 * Describes what the board has settled into
+	 * @return "empty", "static" or "periodic with period N", or "still evolving"
+	 */
+	public String describe() {
+		if (period == 0) return "still evolving";
+		if (isEmpty) return "empty";
+		if (period == 1) return "static";
+		return "periodic with period " + period;
+	}
+
+}
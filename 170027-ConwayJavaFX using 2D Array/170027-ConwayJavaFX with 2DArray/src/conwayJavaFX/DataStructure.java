@@ -1,4 +1,6 @@
 package conwayJavaFX;
+
+import java.util.Arrays;
 /***
  * <b> The DataStructure Class: 2 D Boolean Array Implementation 
  * @author LRCarter
@@ -7,6 +9,8 @@ package conwayJavaFX;
 public class DataStructure implements MemoryDataStructureInterface {
 
 	private boolean cellIsAlive[][];
+	private byte cellBytes[];		// The byte-packed copy used by the vector step, null until it is needed
+	private long lineHashes[];		// The Zobrist hash of the alive cells of each line, updated by every write
 	private long numberOfRows;
 	private long numberOfColumns;
 	/***
@@ -20,6 +24,7 @@ public class DataStructure implements MemoryDataStructureInterface {
 		int h = (int)height;
 		int w = (int)width;
 		cellIsAlive = new boolean[h][w];
+		lineHashes = new long[h];		// One per line, so the bands of the parallel step never share one
 	}
 	/***
 	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
@@ -43,7 +48,9 @@ public class DataStructure implements MemoryDataStructureInterface {
 	public void writeDataStructure(long row, long col, boolean isAlive) {
 		int r = (int)row;
 		int c = (int)col;
+		if (cellIsAlive [c][r] != isAlive) lineHashes[c] ^= CycleDetector.cellKey(r, c);
 		cellIsAlive [c][r] = isAlive;
+		if (cellBytes != null) cellBytes[c * (int)numberOfColumns + r] = (byte)(isAlive ? 1 : 0);
 	}
 	/***
 	 * Getter for Data Structure Height
@@ -68,8 +75,104 @@ public class DataStructure implements MemoryDataStructureInterface {
 		long numberOfRows = cellIsAlive.length;
 		long numberOfCols = cellIsAlive[0].length;
 		long numberOfElements = numberOfCols*numberOfRows;
-		long totalSize = numberOfElements * 2;
+		long totalSize = numberOfElements + lineHashes.length * 8L;		// A boolean of an array takes one byte
+		if (cellBytes != null) totalSize += cellBytes.length;
 		return totalSize;
 	}
 
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, straight from the line of the array
+	 * holding it (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		boolean[] cells = cellIsAlive[(int)col];
+		int r = (int)fromRow;
+		for (int word = 0, i = 0; i < numberOfCells; word++) {
+			long bits = 0;
+			for (int bit = 0; bit < 64 && i < numberOfCells; bit++, i++)
+				bits |= (cells[r + i] ? 1L : 0L) << bit;
+			bitmap[word] = bits;
+		}
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap, straight into the line of the array
+	 * holding it and into its byte-packed copy (see MemoryDataStructureInterface.writeRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		int c = (int)col;
+		int r = (int)fromRow;
+		boolean[] cells = cellIsAlive[c];
+		int line = c * (int)numberOfColumns;
+		for (int i = 0; i < numberOfCells; i++) {
+			boolean isAlive = (bitmap[i >>> 6] & (1L << i)) != 0;
+			if (cells[r + i] == isAlive) continue;
+			cells[r + i] = isAlive;
+			lineHashes[c] ^= CycleDetector.cellKey(r + i, c);
+			if (cellBytes != null) cellBytes[line + r + i] = (byte)(isAlive ? 1 : 0);
+		}
+	}
+
+	/***
+	 * This routine sets every cell dead, keeping the arrays so the data structure can be filled again
+	 * @return True, the 2D Array can always be recycled
+	 */
+	public boolean clearDataStructure() {
+		for (boolean[] line: cellIsAlive) Arrays.fill(line, false);
+		if (cellBytes != null) Arrays.fill(cellBytes, (byte)0);
+		Arrays.fill(lineHashes, 0L);
+		return true;
+	}
+
+	/***
+	 * Fetches a byte-packed copy of the array, one byte (0 or 1) per cell, line after line, for the vector step.
+	 * The copy is made on the first call and is then kept up to date by writeDataStructure.
+	 * @return The byte-packed copy
+	 */
+	public synchronized byte[] getCellBytes() {
+		if (cellBytes == null) {
+			int w = (int)numberOfColumns;
+			byte[] bytes = new byte[cellIsAlive.length * w];
+			for (int c = 0; c < cellIsAlive.length; c++)
+				for (int r = 0; r < w; r++)
+					if (cellIsAlive[c][r]) bytes[c * w + r] = 1;
+			cellBytes = bytes;
+		}
+		return cellBytes;
+	}
+
+	/***
+	 * This routine sets one line of the array from the byte-packed copy, after the vector step has filled it.
+	 * @param line The index of the line (the col index of its cells)
+	 */
+	public void copyLineFromCellBytes(int line) {
+		int w = (int)numberOfColumns;
+		boolean[] cells = cellIsAlive[line];
+		for (int r = 0; r < w; r++) {
+			boolean isAlive = cellBytes[line * w + r] != 0;
+			if (cells[r] != isAlive) {
+				cells[r] = isAlive;
+				lineHashes[line] ^= CycleDetector.cellKey(r, line);
+			}
+		}
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long lineHash: lineHashes) hash ^= lineHash;
+		return hash;
+	}
+
 }
@@ -0,0 +1,157 @@
+package conwayJavaFX;
+/***
+ * <b> The Engine Enumeration: Selectable Data Structure Implementations </b>
+ * <p> Description: Each constant names one implementation of the MemoryDataStructureInterface that a Board
+ * can be built on, and knows how to construct a new, empty instance of it. The Board uses the engine to
+ * allocate the data structure for every new generation and to pick the matching step routine.
+ *
+ * <p> The engine used by the user interface is selected with the system property <code>conway.engine</code>,
+ * e.g. <code>-Dconway.engine=BIT_PACKED</code>. When the property is absent the 2D Array is used.
+ * @author JSGREWAL
+ */
+public enum Engine {
+
+	ARRAY_2D("2D Array", true) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new DataStructure(height, width);
+		}
+	},
+
+	BIT_PACKED("Bit-Packed Long Array", true) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new BitPackedDataStructure(height, width);
+		}
+	},
+
+	HASHLIFE("HashLife Quadtree", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new HashLifeDataStructure(height, width);
+		}
+	},
+
+	ACTIVE_FRONTIER("Change-Tracking Active Frontier", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new ChangeTrackingDataStructure(height, width);
+		}
+	},
+
+	TILED("Tiled With Dormant Tiles", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new TiledDataStructure(height, width);
+		}
+	},
+
+	SPARSE_UNBOUNDED("Unbounded Sparse Hash Set", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new UnboundedSparseDataStructure(height, width);
+		}
+	},
+
+	LOOKUP_TABLE("2D Array With Rule Lookup Tables", true) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new DataStructure(height, width);
+		}
+	},
+
+	NEIGHBOUR_COUNT("Incremental Neighbour Counts", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new NeighbourCountDataStructure(height, width);
+		}
+	},
+
+	RUN_LENGTH("Run-Length Encoded Rows", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new RunLengthDataStructure(height, width);
+		}
+	},
+
+	HYBRID_CONTAINERS("Hybrid Array, Bitmap and Run Containers", false) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new ContainerDataStructure(height, width);
+		}
+	},
+
+	OFF_HEAP("Off-Heap Bit-Packed Memory Segment", true) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new OffHeapDataStructure(height, width);
+		}
+
+		public boolean isAvailable() {
+			return ModuleLayer.boot().findModule("jdk.incubator.foreign").isPresent();
+		}
+	},
+
+	MAPPED("Memory-Mapped Bit-Packed Files", true) {
+		public MemoryDataStructureInterface newDataStructure(long height, long width) {
+			return new MappedDataStructure(height, width);
+		}
+	};
+
+	// The name of the system property used to select the engine
+	public static final String ENGINE_PROPERTY = "conway.engine";
+
+	private final String displayName;	// The name used in the performance printouts
+	private final boolean parallelStep;	// Different cells may be written by different threads
+
+	Engine(String displayName, boolean parallelStep) {
+		this.displayName = displayName;
+		this.parallelStep = parallelStep;
+	}
+
+	/***
+	 * Creates a new data structure of this engine with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 * @return the new, empty data structure
+	 */
+	public abstract MemoryDataStructureInterface newDataStructure(long height, long width);
+
+	/***
+	 * Getter for the human readable name of the engine
+	 * @return the display name
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/***
+	 * Tells if the Board may compute bands of lines of this engine on several threads at once, which needs
+	 * the writes to different cells to be independent of each other
+	 * @return true when the step can run in parallel
+	 */
+	public boolean allowsParallelStep() {
+		return parallelStep;
+	}
+
+	/***
+	 * Tells if this Java runtime has what the engine needs. The off-heap engine needs the jdk.incubator.foreign
+	 * module (java --add-modules jdk.incubator.foreign); the other engines are always available.
+	 * @return true when the engine can be used
+	 */
+	public boolean isAvailable() {
+		return true;
+	}
+
+	/***
+	 * This routine reads the conway.engine system property and returns the matching engine. An unknown
+	 * value, or an engine this runtime cannot run, falls back to the 2D Array after reporting the problem on the
+	 * console.
+	 * @return the selected engine
+	 */
+	public static Engine selected() {
+		String name = System.getProperty(ENGINE_PROPERTY);
+		if (name == null || name.trim().isEmpty()) return ARRAY_2D;
+		Engine engine;
+		try {
+			engine = Engine.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.out.println("Unknown engine \"" + name + "\", using the 2D Array");
+			return ARRAY_2D;
+		}
+		if (!engine.isAvailable()) {
+			System.out.println("The " + engine.getDisplayName() + " engine is not available in this runtime, using the 2D Array");
+			return ARRAY_2D;
+		}
+		return engine;
+	}
+}
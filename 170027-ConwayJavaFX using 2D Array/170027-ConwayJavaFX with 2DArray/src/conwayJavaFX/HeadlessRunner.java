@@ -0,0 +1,123 @@
+package conwayJavaFX;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Scanner;
+/***
+ * <b> The HeadlessRunner Class: Simulation From the Command Line </b>
+ * <p> Description: This console program loads a pattern file, in the format read by the user interface, and
+ * steps it for a number of generations as fast as the machine allows: there is no window, no canvas and no
+ * animation timer. It prints the elapsed time, the generations per second, the p50, p99 and maximum time of a step
+ * and the population of the final board.
+ * Only the classes of the src folder are used, none of which depend on JavaFX, so the program runs on a
+ * server without a display or a JavaFX runtime.
+ *
+ * <p> Usage: <code>java conwayJavaFX.HeadlessRunner pattern generations [engine] [size]</code>. The engine is
+ * one of the Engine constants, <code>-Dconway.engine</code> being used when it is not given; the rule and the
+ * number of threads are set with <code>-Dconway.rule</code> and <code>-Dconway.parallelism</code> as for the
+ * user interface. The board is size x size cells, 256 by default.
+ * @author JSGREWAL
+ */
+
+public class HeadlessRunner {
+
+	public static void main(String[] args) {
+		if (args.length < 2 || args.length > 4) {
+			usage("");
+			return;
+		}
+		File pattern = new File(args[0]);
+		int generations;
+		int size;
+		try {
+			generations = Integer.parseInt(args[1]);
+			size = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+		} catch (NumberFormatException e) {
+			usage("The generations and the size must be whole numbers");
+			return;
+		}
+		if (generations < 0 || size < 3) {
+			usage("The generations must be at least 0 and the size at least 3");
+			return;
+		}
+		Engine engine = Engine.selected();
+		if (args.length > 2) {
+			try {
+				engine = Engine.valueOf(args[2].trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				usage("Unknown engine \"" + args[2] + "\"");
+				return;
+			}
+			if (!engine.isAvailable()) {
+				usage("The " + engine.getDisplayName() + " engine is not available in this runtime");
+				return;
+			}
+		}
+
+		// Check that every cell of the pattern is on the board before loading it
+		String cells;
+		try {
+			cells = readPattern(pattern, size);
+		} catch (FileNotFoundException e) {
+			usage("Pattern file not found: " + pattern);
+			return;
+		} catch (IllegalArgumentException e) {
+			usage(e.getMessage());
+			return;
+		}
+
+		System.out.println("Pattern " + pattern.getName() + " (Using " + engine.getDisplayName() + ", " + Board.getRule()
+				+ "), " + size + " x " + size + " board, " + generations + " generations");
+		Board odd = new Board(size, size, new Scanner(cells), engine);
+		Board even = new Board(size, size, engine);
+		SimulationMetrics metrics = Board.getMetrics();
+		metrics.reset();
+		long start = System.nanoTime();
+		for (int generation = 0; generation < generations; generation++) {
+			if (generation % 2 == 0) even.step(odd);
+			else odd.step(even);
+		}
+		double milliseconds = (System.nanoTime() - start) / 1e6;
+		Board last = generations % 2 == 0 ? odd : even;
+
+		System.out.println(String.format("Elapsed time: %.1f ms", milliseconds));
+		System.out.println(String.format("Generations/sec: %.1f", generations * 1000.0 / milliseconds));
+		LatencyHistogram steps = metrics.histogram(SimulationMetrics.STEP_NANOS);
+		System.out.println(String.format("Step latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+				steps.getValueAtPercentile(50) / 1e6, steps.getValueAtPercentile(99) / 1e6, steps.getMax() / 1e6));
+		System.out.println("Final population: " + last.getPopulation());
+		odd.release();
+		even.release();
+	}
+
+	/***
+	 * Reads the pattern file, two coordinates per line, and checks that they are inside a board of the size
+	 * @return the content of the file
+	 */
+	private static String readPattern(File pattern, int size) throws FileNotFoundException {
+		StringBuilder cells = new StringBuilder();
+		try (Scanner scanner = new Scanner(pattern)) {
+			for (int line = 1; scanner.hasNextLine(); line++) {
+				String inputLine = scanner.nextLine();
+				if (inputLine.trim().isEmpty()) continue;
+				Scanner input = new Scanner(inputLine);
+				if (!input.hasNextInt()) throw new IllegalArgumentException("Line " + line + " does not start with two integers");
+				int x = input.nextInt();
+				if (!input.hasNextInt()) throw new IllegalArgumentException("Line " + line + " does not start with two integers");
+				int y = input.nextInt();
+				input.close();
+				if (x < 0 || x >= size || y < 0 || y >= size)
+					throw new IllegalArgumentException("The cell " + x + " " + y + " of line " + line + " is outside of the board");
+				cells.append(x).append(' ').append(y).append('\n');
+			}
+		}
+		return cells.toString();
+	}
+
+	private static void usage(String problem) {
+		if (!problem.isEmpty()) System.out.println(problem);
+		System.out.println("Usage: java conwayJavaFX.HeadlessRunner pattern generations [engine] [size]");
+		System.exit(2);
+	}
+
+}
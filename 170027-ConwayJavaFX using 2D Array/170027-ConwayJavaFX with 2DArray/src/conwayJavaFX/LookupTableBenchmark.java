@@ -0,0 +1,79 @@
+package conwayJavaFX;
+
+import java.util.Random;
+/***
+ * <b> The LookupTableBenchmark Class: Rule Tables Against the Counting Step </b>
+ * <p> Description: This console program runs the same random soup, for several board sizes, with the scalar
+ * 2D Array step (eight readDataStructure calls and branches per cell), with the 512-entry 3x3 table and with
+ * the 65,536-entry 4x4 table, and prints the generations per second of each and their speedup over the
+ * counting step. It also checks that all three end on exactly the same board.
+ *
+ * <p> Usage: <code>java conwayJavaFX.LookupTableBenchmark [generations] [size ...]</code>. The defaults are 200
+ * generations on boards of 256, 1024 and 2048 cells square.
+ * @author JSGREWAL
+ */
+
+public class LookupTableBenchmark {
+
+	public static void main(String[] args) {
+		int generations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int[] sizes = {256, 1024, 2048};
+		if (args.length > 1) {
+			sizes = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) sizes[i - 1] = Integer.parseInt(args[i]);
+		}
+		Board.setParallelism(1);
+		Board.setVectorStep(false);
+
+		System.out.println("Rule lookup tables against the counting step (Using 2D Array), " + generations + " generations");
+		System.out.println("   Size   Counting (gen/sec)   3x3 table (gen/sec)   4x4 table (gen/sec)   Speedup 3x3   Speedup 4x4   Same board");
+		for (int size: sizes) {
+			run(Engine.ARRAY_2D, size, 50);						// Warm up the compiler
+			long start = System.nanoTime();
+			Board counting = run(Engine.ARRAY_2D, size, generations);
+			double countingTime = (System.nanoTime() - start) / 1e9;
+
+			LookupTableStep.setBlockTable(false);
+			run(Engine.LOOKUP_TABLE, size, 50);
+			start = System.nanoTime();
+			Board centre = run(Engine.LOOKUP_TABLE, size, generations);
+			double centreTime = (System.nanoTime() - start) / 1e9;
+
+			LookupTableStep.setBlockTable(true);
+			run(Engine.LOOKUP_TABLE, size, 50);
+			start = System.nanoTime();
+			Board block = run(Engine.LOOKUP_TABLE, size, generations);
+			double blockTime = (System.nanoTime() - start) / 1e9;
+
+			System.out.println(String.format("%7d %20.1f %21.1f %21.1f %13.2f %13.2f   %s", size,
+					generations / countingTime, generations / centreTime, generations / blockTime,
+					countingTime / centreTime, countingTime / blockTime,
+					sameCells(counting, centre) && sameCells(counting, block) ? "yes" : "NO"));
+		}
+	}
+
+	/***
+	 * Steps a random board (always the same one) for a number of generations and returns the final board
+	 */
+	private static Board run(Engine engine, int size, int generations) {
+		Board odd = new Board(size, size, engine);
+		Board even = new Board(size, size, engine);
+		Random random = new Random(170027);
+		for (int x = 1; x < size-1; x++)
+			for (int y = 1; y < size-1; y++)
+				if (random.nextInt(3) == 0) odd.cellIsAlive.writeDataStructure(x, y, true);
+		for (int generation = 0; generation < generations; generation++) {
+			if (generation % 2 == 0) even.step(odd);
+			else odd.step(even);
+		}
+		return generations % 2 == 0 ? odd : even;
+	}
+
+	private static boolean sameCells(Board a, Board b) {
+		for (int x = 0; x < a.cellIsAlive.getDataStructureWidth(); x++)
+			for (int y = 0; y < a.cellIsAlive.getDataStructureHeight(); y++)
+				if (a.cellIsAlive.readDataStructure(x, y) != b.cellIsAlive.readDataStructure(x, y)) return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,191 @@
+package conwayJavaFX;
+/***
+ * <b> The LookupTableStep Class: Step Kernels Driven by Precomputed Rule Tables </b>
+ * <p> Description: The rule is computed once for every possible neighbourhood and kept in two tables, so the
+ * step reads a table instead of counting neighbours with a chain of branches:
+ * <ul>
+ * <li> the 3x3 table has 512 entries, one per 3x3 neighbourhood, giving the next state of its centre cell;
+ * <li> the 4x4 table has 65,536 entries, one per 4x4 block, giving the next state of its 2x2 centre (4 bits).
+ * </ul>
+ * Both kernels work on the byte-packed copy of the 2D Array (one byte per cell) and keep the index of the
+ * neighbourhood in a register while they slide along a line: moving one cell (3x3) or two cells (4x4) to the
+ * right only shifts out the left column and adds the new one on the right. The 4x4 kernel computes two lines
+ * and two cells per table read, and the 3x3 table finishes the odd line or cell that is left over.
+ *
+ * <p> The tables are built for the rule of the step the first time it is used, and kept until another rule
+ * is used.
+ *
+ * <p> The bit of a cell in an index is 3 * column + line (3x3) or 4 * column + line (4x4), column and line
+ * being counted from the top left corner of the neighbourhood. The 2x2 centre is returned as bit 0 (top left),
+ * 1 (top right), 2 (bottom left) and 3 (bottom right).
+ * @author JSGREWAL
+ */
+
+public class LookupTableStep {
+
+	// Use the 4x4 table unless the conway.lookup property asks for the 3x3 one, see setBlockTable
+	private static boolean blockTable = !"3x3".equals(System.getProperty("conway.lookup"));
+
+	// The tables of the rule used last
+	private static volatile Tables tables = new Tables(Rule.LIFE);
+
+	/***
+	 * The two tables of one rule
+	 */
+	private static final class Tables {
+		final Rule rule;
+		final byte[] nextCentre = new byte[1 << 9];		// 3x3 neighbourhood -> next centre cell
+		final byte[] nextBlock = new byte[1 << 16];		// 4x4 block -> next 2x2 centre
+
+		Tables(Rule rule) {
+			this.rule = rule;
+			for (int index = 0; index < nextCentre.length; index++)
+				if (rule.isAlive(Integer.bitCount(index & ~(1 << 4)), (index & (1 << 4)) != 0)) nextCentre[index] = 1;
+			for (int index = 0; index < nextBlock.length; index++)
+				nextBlock[index] = (byte)(nextCentre[neighbourhood(index, 0, 0)]
+						| nextCentre[neighbourhood(index, 1, 0)] << 1
+						| nextCentre[neighbourhood(index, 0, 1)] << 2
+						| nextCentre[neighbourhood(index, 1, 1)] << 3);
+		}
+	}
+
+	private LookupTableStep() {
+	}
+
+	/***
+	 * Fetches the tables of a rule, building them when the rule is not the one used last
+	 */
+	private static Tables tablesFor(Rule rule) {
+		Tables current = tables;
+		if (current.rule.equals(rule)) return current;
+		synchronized (LookupTableStep.class) {
+			if (!tables.rule.equals(rule)) tables = new Tables(rule);
+			return tables;
+		}
+	}
+
+	/***
+	 * Extracts the 3x3 index of the neighbourhood starting at (column, line) of a 4x4 block index
+	 */
+	private static int neighbourhood(int block, int column, int line) {
+		int index = 0;
+		for (int j = 0; j < 3; j++)
+			for (int i = 0; i < 3; i++)
+				if ((block & (1 << (4 * (column + j) + line + i))) != 0) index |= 1 << (3 * j + i);
+		return index;
+	}
+
+	/***
+	 * This routine selects the table used by the Board: the 4x4 block table (the default) or the 3x3 table.
+	 * @param useBlockTable True for the 4x4 table
+	 */
+	public static void setBlockTable(boolean useBlockTable) {
+		blockTable = useBlockTable;
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next generation with the table
+	 * selected by setBlockTable, writing them into both the byte-packed copy and the boolean array.
+	 * @param next The (empty) data structure receiving the new generation
+	 * @param previous The data structure holding the previous generation, at least as tall and as wide
+	 * @param fromLine The first line to compute, at least 1
+	 * @param toLine The line after the last one to compute, at most height-1
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public static void stepLines(DataStructure next, DataStructure previous, int fromLine, int toLine, Rule rule) {
+		if (blockTable) stepLinesWithBlockTable(next, previous, fromLine, toLine, rule);
+		else stepLinesWithCentreTable(next, previous, fromLine, toLine, rule);
+	}
+
+	/***
+	 * The 3x3 kernel: one table read per cell
+	 */
+	public static void stepLinesWithCentreTable(DataStructure next, DataStructure previous, int fromLine, int toLine,
+			Rule rule) {
+		byte[] nextCentre = tablesFor(rule).nextCentre;
+		byte[] in = previous.getCellBytes();
+		byte[] out = next.getCellBytes();
+		int w = (int)next.getDataStructureWidth();
+		for (int line = fromLine; line < toLine; line++) {
+			centreLine(nextCentre, in, out, w, line);
+			next.copyLineFromCellBytes(line);
+		}
+	}
+
+	/***
+	 * The 4x4 kernel: one table read per 2x2 cells, the 3x3 table finishing an odd line
+	 */
+	public static void stepLinesWithBlockTable(DataStructure next, DataStructure previous, int fromLine, int toLine,
+			Rule rule) {
+		Tables ruleTables = tablesFor(rule);
+		byte[] nextCentre = ruleTables.nextCentre;
+		byte[] nextBlock = ruleTables.nextBlock;
+		byte[] in = previous.getCellBytes();
+		byte[] out = next.getCellBytes();
+		int w = (int)next.getDataStructureWidth();
+		int line = fromLine;
+		for (; line + 1 < toLine; line += 2) {
+			int l0 = (line - 1) * w;
+			int l1 = line * w;
+			int l2 = (line + 1) * w;
+			int l3 = (line + 2) * w;
+
+			// The index holds the columns r-1 and r; the columns r+1 and r+2 are added for each pair of cells
+			int index = in[l0] | in[l1] << 1 | in[l2] << 2 | in[l3] << 3
+					| (in[l0 + 1] | in[l1 + 1] << 1 | in[l2 + 1] << 2 | in[l3 + 1] << 3) << 4;
+			int r = 1;
+			for (; r + 1 < w - 1; r += 2) {
+				index |= (in[l0 + r + 1] | in[l1 + r + 1] << 1 | in[l2 + r + 1] << 2 | in[l3 + r + 1] << 3) << 8
+						| (in[l0 + r + 2] | in[l1 + r + 2] << 1 | in[l2 + r + 2] << 2 | in[l3 + r + 2] << 3) << 12;
+				int block = nextBlock[index];
+				out[l1 + r] = (byte)(block & 1);
+				out[l1 + r + 1] = (byte)(block >>> 1 & 1);
+				out[l2 + r] = (byte)(block >>> 2 & 1);
+				out[l2 + r + 1] = (byte)(block >>> 3);
+				index >>>= 8;
+			}
+
+			// A width with an odd number of interior cells leaves one cell on each line
+			if (r < w - 1) {
+				out[l1 + r] = nextCentre[centreIndex(in, w, line, r)];
+				out[l2 + r] = nextCentre[centreIndex(in, w, line + 1, r)];
+			}
+			next.copyLineFromCellBytes(line);
+			next.copyLineFromCellBytes(line + 1);
+		}
+		if (line < toLine) {
+			centreLine(nextCentre, in, out, w, line);
+			next.copyLineFromCellBytes(line);
+		}
+	}
+
+	/***
+	 * Computes one line with the 3x3 table
+	 */
+	private static void centreLine(byte[] nextCentre, byte[] in, byte[] out, int w, int line) {
+		int above = (line - 1) * w;
+		int here = line * w;
+		int below = (line + 1) * w;
+
+		// The index holds the columns r-1 and r; the column r+1 is added for each cell
+		int index = in[above] | in[here] << 1 | in[below] << 2
+				| (in[above + 1] | in[here + 1] << 1 | in[below + 1] << 2) << 3;
+		for (int r = 1; r < w - 1; r++) {
+			index |= (in[above + r + 1] | in[here + r + 1] << 1 | in[below + r + 1] << 2) << 6;
+			out[here + r] = nextCentre[index];
+			index >>>= 3;
+		}
+	}
+
+	/***
+	 * Builds the 3x3 index of the neighbourhood of one cell
+	 */
+	private static int centreIndex(byte[] in, int w, int line, int r) {
+		int index = 0;
+		for (int j = 0; j < 3; j++)
+			for (int i = 0; i < 3; i++)
+				index |= in[(line - 1 + i) * w + r - 1 + j] << (3 * j + i);
+		return index;
+	}
+
+}
@@ -0,0 +1,435 @@
+package conwayJavaFX;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+/***
+ * <b> The MappedDataStructure Class: Bit-Packed Board in a Memory-Mapped File </b>
+ * <p> Description: This data structure has the layout of the bit-packed implementation, one bit per cell and 64
+ * cells per long, line after line, in a file mapped into memory with FileChannel.map. The operating system pages
+ * the parts of the board that are used in and out of memory, so a board can be larger than the physical memory,
+ * and the generation is on disk as soon as it is computed.
+ *
+ * <p> Each data structure has a file of its own, board-0.bits, board-1.bits, ... in the directory given by the
+ * conway.mapped.directory system property (conway-boards in the temporary directory by default): the first file
+ * that no other data structure of this program uses. The odd and even boards of the animation each keep their
+ * file, so the generations are double-buffered between the two files. The file starts with a header of 32 bytes,
+ * a magic number, the height, the width and the generation the file holds, followed by the lines. A file being
+ * computed has the generation -1, so when the program is stopped in the middle of a step the other file still
+ * holds the last complete generation; resume opens the file with the latest one again, as it is.
+ *
+ * <p> The step and clearDataStructure only write the words that change, so the pages holding nothing but dead
+ * cells are never written to the disk. A mapping is at most 2 GB, so the lines are mapped in regions of about
+ * 1 GB. The cell addressing is the same as the 2D Array implementation, so both produce identical boards.
+ * @author JSGREWAL
+ */
+
+public class MappedDataStructure implements MemoryDataStructureInterface, AutoCloseable {
+
+	// The name of the system property giving the directory of the files
+	public static final String DIRECTORY_PROPERTY = "conway.mapped.directory";
+
+	private static final long MAGIC = 0x434F4E5741594D42L;		// "CONWAYMB"
+	private static final int HEADER = 32;						// The bytes of the header
+	private static final int GENERATION = 24;					// The position of the generation in the header
+	private static final long REGION_BYTES = 1L << 30;			// The bytes of lines mapped at once, at most
+
+	private static final BitSet filesInUse = new BitSet();		// The files open in this program, by number
+
+	private int fileNumber;
+	private MappedByteBuffer header;
+	private MappedByteBuffer[] regions;		// The lines, linesPerRegion lines per region
+	private int linesPerRegion;
+	private int bytesPerLine;
+	private int h;
+	private int wordsPerLine;				// The number of longs used by each line
+	private long[] interiorMask;			// The bits of a line that are not on the left or right boundary
+	private long[] lineHashes;				// The Zobrist hash of the alive cells of each line
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	/***
+	 * Constructs the board of dimensions height x width in the first file not in use, with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public MappedDataStructure(long height, long width) {
+		this(height, width, firstFileNotInUse(), false);
+	}
+
+	/***
+	 * Maps a file of the directory, either clearing it or keeping the generation it holds
+	 */
+	private MappedDataStructure(long height, long width, int fileNumber, boolean keep) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		this.fileNumber = fileNumber;
+		h = (int)height;
+		int w = (int)width;
+		wordsPerLine = (w + 63) >>> 6;
+		bytesPerLine = wordsPerLine * 8;
+		linesPerRegion = (int)Math.max(1, REGION_BYTES / bytesPerLine);
+
+		File file = fileOf(fileNumber);
+		file.getParentFile().mkdirs();
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			// A new board starts from an empty file, whose holes read as dead cells without taking any disk space.
+			// The mappings stay valid once the channel is closed
+			if (!keep) randomAccessFile.setLength(0);
+			randomAccessFile.setLength(HEADER + (long)h * bytesPerLine);
+			FileChannel channel = randomAccessFile.getChannel();
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			regions = new MappedByteBuffer[(h + linesPerRegion - 1) / linesPerRegion];
+			for (int region = 0; region < regions.length; region++) {
+				int lines = Math.min(linesPerRegion, h - region * linesPerRegion);
+				regions[region] = channel.map(FileChannel.MapMode.READ_WRITE,
+						HEADER + (long)region * linesPerRegion * bytesPerLine, (long)lines * bytesPerLine);
+				regions[region].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		} catch (IOException e) {
+			release(fileNumber);
+			throw new UncheckedIOException("Cannot map " + file, e);
+		}
+		if (!keep) {
+			header.putLong(0, MAGIC);
+			header.putLong(8, height);
+			header.putLong(16, width);
+			header.putLong(GENERATION, -1);					// Nothing saved yet
+		}
+
+		// Only the cells 1 .. width-2 of a line are ever computed by a step, the boundary stays dead
+		interiorMask = new long[wordsPerLine];
+		for (int bit = 1; bit < w - 1; bit++) interiorMask[bit >>> 6] |= 1L << bit;
+
+		// The hashes are not saved in the file, a resumed board computes them once from its cells
+		lineHashes = new long[h];
+		if (keep)
+			for (int line = 0; line < h; line++)
+				for (int i = 0; i < wordsPerLine; i++) lineHashes[line] ^= CycleDetector.wordKey(word(line, i), (long)i << 6, line);
+	}
+
+	/***
+	 * The directory of the files
+	 */
+	private static File directory() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory == null || directory.trim().isEmpty())
+			return new File(System.getProperty("java.io.tmpdir"), "conway-boards");
+		return new File(directory.trim());
+	}
+
+	private static File fileOf(int fileNumber) {
+		return new File(directory(), "board-" + fileNumber + ".bits");
+	}
+
+	/***
+	 * Takes the first file not in use
+	 */
+	private static synchronized int firstFileNotInUse() {
+		int fileNumber = filesInUse.nextClearBit(0);
+		filesInUse.set(fileNumber);
+		return fileNumber;
+	}
+
+	private static synchronized void release(int fileNumber) {
+		filesInUse.clear(fileNumber);
+	}
+
+	/***
+	 * This routine opens again the file, not in use, that holds the latest complete generation of a board of
+	 * the given width, keeping its cells as they are. The height is the one saved in the file, since the step of
+	 * the Board makes the boards it computes as high as they are wide.
+	 * @param width number of cols
+	 * @return the data structure of the latest generation saved, or null when there is none
+	 */
+	public static MappedDataStructure resume(long width) {
+		int latest = -1;
+		long latestGeneration = -1;
+		long height = 0;
+		synchronized (MappedDataStructure.class) {
+			File[] files = directory().listFiles();
+			if (files == null) return null;
+			for (File file: files) {
+				String name = file.getName();
+				if (!name.matches("board-\\d+\\.bits")) continue;
+				int fileNumber = Integer.parseInt(name.substring(6, name.length() - 5));
+				if (filesInUse.get(fileNumber)) continue;
+				try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+					if (randomAccessFile.length() < HEADER) continue;
+					long[] fields = new long[4];
+					for (int i = 0; i < 4; i++) fields[i] = Long.reverseBytes(randomAccessFile.readLong());
+					if (fields[0] != MAGIC || fields[2] != width) continue;
+					boolean isComplete = randomAccessFile.length() == HEADER + fields[1] * ((width + 63) >>> 6) * 8;
+					if (isComplete && fields[3] > latestGeneration) {
+						latest = fileNumber;
+						latestGeneration = fields[3];
+						height = fields[1];
+					}
+				} catch (IOException e) {
+					continue;										// Not a file that can be resumed
+				}
+			}
+			if (latest < 0) return null;
+			filesInUse.set(latest);
+		}
+		return new MappedDataStructure(height, width, latest, true);
+	}
+
+	/***
+	 * Getter for the generation saved in the file, -1 while it is being computed
+	 * @return the generation
+	 */
+	public long getGeneration() {
+		checkMapped();
+		return header.getLong(GENERATION);
+	}
+
+	/***
+	 * Setter for the generation saved in the file, called by the Board once the generation is complete
+	 * @param generation the generation the file now holds
+	 */
+	public void setGeneration(long generation) {
+		checkMapped();
+		header.putLong(GENERATION, generation);
+	}
+
+	private void checkMapped() {
+		if (regions == null) throw new IllegalStateException("The mapped board has been released");
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		checkMapped();
+		int r = (int)row;
+		return (word((int)col, r >>> 6) & (1L << r)) != 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		checkMapped();
+		int r = (int)row;
+		int c = (int)col;
+		long word = word(c, r >>> 6);
+		long next = isAlive ? word | (1L << r) : word & ~(1L << r);
+		if (next != word) {
+			lineHashes[c] ^= CycleDetector.cellKey(r, c);
+			setWord(c, r >>> 6, next);
+		}
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the bytes of the file, which the operating system keeps in
+	 * memory or not
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return HEADER + (long)h * bytesPerLine;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step one line at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		checkMapped();
+		long hash = 0;
+		for (long lineHash: lineHashes) hash ^= lineHash;
+		return hash;
+	}
+
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, 64 cells at a time from the words of the
+	 * line holding it (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		checkMapped();
+		int line = (int)col;
+		int r = (int)fromRow;
+		int shift = r & 63;
+		int words = (numberOfCells + 63) >>> 6;
+		for (int word = 0; word < words; word++) {
+			int index = (r >>> 6) + word;
+			long bits = word(line, index) >>> shift;
+			if (shift != 0) bits |= word(line, index + 1) << (64 - shift);
+			bitmap[word] = bits;
+		}
+		if ((numberOfCells & 63) != 0) bitmap[words - 1] &= (1L << numberOfCells) - 1;
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap, 64 cells at a time into the words of the
+	 * line holding it (see MemoryDataStructureInterface.writeRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		checkMapped();
+		int line = (int)col;
+		int r = (int)fromRow;
+		for (int i = 0; i < numberOfCells; ) {
+			// The cells i .. i+n-1 of the bitmap go to one word of the line, from bit (r + i) % 64
+			int n = Math.min(numberOfCells - i, 64 - ((r + i) & 63));
+			long bits = bitmap[i >>> 6] >>> (i & 63);
+			if ((i & 63) != 0 && n > 64 - (i & 63)) bits |= bitmap[(i >>> 6) + 1] << (64 - (i & 63));
+			long mask = (n == 64 ? -1L : (1L << n) - 1) << ((r + i) & 63);
+			int index = (r + i) >>> 6;
+			long word = word(line, index);
+			long next = (word & ~mask) | ((bits << ((r + i) & 63)) & mask);
+			lineHashes[line] ^= CycleDetector.wordKey(next ^ word, (long)index << 6, line);
+			setWord(line, index, next);
+			i += n;
+		}
+	}
+
+	/***
+	 * This routine sets every cell dead, keeping the file so the data structure can be filled again. Only the
+	 * words with an alive cell are written, so the pages of dead cells are not made dirty. The file holds no
+	 * complete generation until the Board sets the generation again.
+	 * @return True, the file can always be recycled
+	 */
+	public boolean clearDataStructure() {
+		checkMapped();
+		header.putLong(GENERATION, -1);
+		for (MappedByteBuffer region: regions)
+			for (int position = 0; position < region.capacity(); position += 8)
+				if (region.getLong(position) != 0) region.putLong(position, 0L);
+		Arrays.fill(lineHashes, 0L);
+		return true;
+	}
+
+	/***
+	 * This routine writes the cells that changed back to the file and lets another data structure use the file.
+	 * The mapping itself is unmapped when it is collected. The data structure must not be used afterwards.
+	 */
+	public void releaseDataStructure() {
+		if (regions == null) return;
+		for (MappedByteBuffer region: regions) region.force();
+		header.force();
+		regions = null;
+		header = null;
+		release(fileNumber);
+	}
+
+	/***
+	 * Writes the board to the file and releases it, see releaseDataStructure
+	 */
+	public void close() {
+		releaseDataStructure();
+	}
+
+	/***
+	 * Fetches one word of a line, treating anything outside of the board as dead cells
+	 * @param line The line index
+	 * @param index The index of the word within the line
+	 * @return The 64 cells held by that word
+	 */
+	private long word(int line, int index) {
+		if (line < 0 || line >= h || index < 0 || index >= wordsPerLine) return 0L;
+		return regions[line / linesPerRegion].getLong((line % linesPerRegion) * bytesPerLine + index * 8);
+	}
+
+	private void setWord(int line, int index, long word) {
+		regions[line / linesPerRegion].putLong((line % linesPerRegion) * bytesPerLine + index * 8, word);
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next generation, with the same
+	 * adders as BitPackedDataStructure.nextGeneration, sliding the words of the three lines around a line along
+	 * so that each word of the previous generation is read once per line that needs it. Every line is made of its
+	 * own words, so separate bands of lines can be computed by different threads. The hash of a line is the one of
+	 * the previous generation updated with the cells that changed.
+	 * @param previous The data structure holding the previous generation
+	 * @param fromLine The first line to compute, at least 1
+	 * @param toLine The line after the last one to compute, at most height-1
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(MappedDataStructure previous, int fromLine, int toLine, Rule rule) {
+		checkMapped();
+		previous.checkMapped();
+		for (int line = fromLine; line < toLine; line++) {
+			long hash = previous.lineHashes[line];
+
+			// The words i-1, i and i+1 of the line above, the line itself and the line below
+			long aWest = 0, a = previous.word(line - 1, 0), aEast = previous.word(line - 1, 1);
+			long bWest = 0, b = previous.word(line, 0), bEast = previous.word(line, 1);
+			long dWest = 0, d = previous.word(line + 1, 0), dEast = previous.word(line + 1, 1);
+			for (int i = 0; i < wordsPerLine; i++) {
+				long aW = (a << 1) | (aWest >>> 63);
+				long aE = (a >>> 1) | (aEast << 63);
+				long bW = (b << 1) | (bWest >>> 63);
+				long bE = (b >>> 1) | (bEast << 63);
+				long dW = (d << 1) | (dWest >>> 63);
+				long dE = (d >>> 1) | (dEast << 63);
+
+				// Full adders for the line above and the line below, a half adder for the two side cells
+				long aOnes = aW ^ a ^ aE;
+				long aTwos = (aW & a) | (aE & (aW ^ a));
+				long dOnes = dW ^ d ^ dE;
+				long dTwos = (dW & d) | (dE & (dW ^ d));
+				long bOnes = bW ^ bE;
+				long bTwos = bW & bE;
+
+				// Add the three "ones" bits; the carry joins the four "twos" bits, added with two half adders
+				long ones = aOnes ^ dOnes ^ bOnes;
+				long onesCarry = (aOnes & dOnes) | (bOnes & (aOnes ^ dOnes));
+				long twosAD = aTwos ^ dTwos;
+				long twosBC = bTwos ^ onesCarry;
+				long twos = twosAD ^ twosBC;
+				long fours = (aTwos & dTwos) ^ (bTwos & onesCarry) ^ (twosAD & twosBC);
+				long eights = aTwos & dTwos & bTwos & onesCarry;
+
+				// Only write the words that change, so the pages of dead cells stay clean
+				long next = rule.nextCells(ones, twos, fours, eights, b) & interiorMask[i];
+				if (next != word(line, i)) setWord(line, i, next);
+				if (next != b) hash ^= CycleDetector.wordKey(next ^ b, (long)i << 6, line);
+
+				// Slide the three lines by one word
+				aWest = a; a = aEast; aEast = previous.word(line - 1, i + 2);
+				bWest = b; b = bEast; bEast = previous.word(line, i + 2);
+				dWest = d; d = dEast; dEast = previous.word(line + 1, i + 2);
+			}
+			lineHashes[line] = hash;
+		}
+	}
+
+}
@@ -1,4 +1,6 @@
 package conwayJavaFX;
+
+import java.util.Arrays;
 /****
  * <b> Title: The Memory Data Structure Interface </b>
  * <p>Description: This interface contains various methods related to storing and retrieving the state of live or dead cells
@@ -42,4 +44,67 @@ public interface MemoryDataStructureInterface {
 	 */
 	public long getDataStructureSize();
 
+	/***
+	 * This routine reads a segment of a row of the board, as the board displays it: the cells that share the col
+	 * index, one after the other along the row index. Bit i of the bitmap (bit i % 64 of word i / 64) tells if
+	 * the cell (fromRow + i, col) is alive. The words covering the segment are overwritten and the bits past its
+	 * end are cleared. This version reads the cells one by one; implementations override it with a bulk version.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells, at least (numberOfCells + 63) / 64 words long
+	 */
+	public default void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		for (int i = 0; i < numberOfCells; i++)
+			if (readDataStructure(fromRow + i, col)) bitmap[i >>> 6] |= 1L << i;
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap laid out as for readRowSegment: every
+	 * cell of the segment is made alive or dead. This version writes the cells one by one; implementations
+	 * override it with a bulk version.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public default void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		for (int i = 0; i < numberOfCells; i++)
+			writeDataStructure(fromRow + i, col, (bitmap[i >>> 6] & (1L << i)) != 0);
+	}
+
+	/***
+	 * This routine sets every cell dead while keeping the storage, so that a Board can fill the data structure
+	 * of an old generation again instead of allocating a new one. This version keeps nothing: data structures
+	 * that can be recycled override it.
+	 * @return True when the data structure was cleared, False when a new one must be allocated instead
+	 */
+	public default boolean clearDataStructure() {
+		return false;
+	}
+
+	/***
+	 * This routine frees the storage the data structure holds outside of the Java heap, as soon as the Board
+	 * stops using it instead of whenever it is collected. The data structure must not be used afterwards. This
+	 * version has nothing to free: data structures with native storage override it.
+	 */
+	public default void releaseDataStructure() {
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board: the exclusive or of the keys (see CycleDetector.cellKey) of
+	 * the alive cells. This version scans the whole board, which costs as much as a step: every data structure
+	 * of this program overrides it with a hash kept up to date as cells are written and stepped, covering the
+	 * whole universe for the ones without a boundary.
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public default long getBoardHash() {
+		long hash = 0;
+		for (long col = 0; col < getDataStructureHeight(); col++)
+			for (long row = 0; row < getDataStructureWidth(); row++)
+				if (readDataStructure(row, col)) hash ^= CycleDetector.cellKey(row, col);
+		return hash;
+	}
+
 }
@@ -0,0 +1,222 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The NeighbourCountDataStructure Class: Incrementally Maintained Neighbour Counts </b>
+ * <p> Description: Every cell is a single byte holding its state in bit 0 and the number of its alive neighbours
+ * in bits 1 to 4. A birth or a death adds or removes 2 in the bytes of the 8 neighbours as the cell is written,
+ * so the counts are always up to date and the step never has to read a neighbourhood: the byte of a cell alone
+ * tells if it changes, with one lookup in a table of the rule.
+ *
+ * <p> The step starts the new generation as a copy of the previous one and only writes the cells that change,
+ * each write updating the counts around it. Lines with no alive cell next to them hold nothing but zeros and are
+ * skipped, so a board with little activity costs a copy plus the work where cells really are born or die.
+ *
+ * <p> The grid has a margin of one dead cell all around, so the neighbours of a boundary cell can be updated
+ * without any test. The cell addressing is the same as the 2D Array implementation, so both produce identical
+ * boards.
+ * @author JSGREWAL
+ */
+
+public class NeighbourCountDataStructure implements MemoryDataStructureInterface {
+
+	private static final int ALIVE = 1;
+	private static final int NEIGHBOUR = 2;		// What one alive neighbour adds to the byte of a cell
+
+	private byte[] cells;				// The state and the neighbour count of the cells, line after line
+	private int[] linePopulation;		// The number of alive cells of each line
+	private long boardHash = 0;			// The Zobrist hash of the alive cells, flipped by every change
+	private int stride;					// The bytes of a line, margin included
+	private int h;
+	private int w;
+	private long numberOfRows;
+	private long numberOfColumns;
+	private long cellsExamined;			// The cells looked at by the step that produced this generation
+	private Rule changesRule;			// The rule of the changes table, null until the first step
+	private boolean[] changes;			// For each byte, true when the cell changes in the next generation
+
+	/***
+	 * Constructs the grid of dimensions height x width, with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public NeighbourCountDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		w = (int)width;
+		stride = w + 2;
+		cells = new byte[(h + 2) * stride];
+		linePopulation = new int[h];
+	}
+
+	/***
+	 * The position of a cell in the byte array, past the margin
+	 */
+	private int index(int r, int c) {
+		return (c + 1) * stride + r + 1;
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		return (cells[index(r, c)] & ALIVE) != 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure. A cell that changes updates the neighbour counts of the 8 cells around it.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		int i = index(r, c);
+		if (((cells[i] & ALIVE) != 0) == isAlive) return;
+		flip(i, r, c, isAlive);
+	}
+
+	/***
+	 * Changes the state of the cell at position i and the counts of its neighbours
+	 */
+	private void flip(int i, int r, int c, boolean isAlive) {
+		int delta = isAlive ? NEIGHBOUR : -NEIGHBOUR;
+		cells[i] ^= ALIVE;
+		cells[i - stride - 1] += delta;
+		cells[i - stride] += delta;
+		cells[i - stride + 1] += delta;
+		cells[i - 1] += delta;
+		cells[i + 1] += delta;
+		cells[i + stride - 1] += delta;
+		cells[i + stride] += delta;
+		cells[i + stride + 1] += delta;
+		linePopulation[c] += isAlive ? 1 : -1;
+		boardHash ^= CycleDetector.cellKey(r, c);
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the bytes of the cells, margin included, and the line
+	 * populations
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return cells.length + linePopulation.length * 4L;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		return boardHash;
+	}
+
+	/***
+	 * Getter for the number of cells looked at by the step that produced this generation
+	 * @return the number of cells examined
+	 */
+	public long getCellsExamined() {
+		return cellsExamined;
+	}
+
+	/***
+	 * Tells if a line can hold a cell with an alive neighbour or an alive cell, that is if it or one of the two
+	 * lines next to it has an alive cell
+	 */
+	private boolean isBusy(int c) {
+		return linePopulation[c] != 0 || (c > 0 && linePopulation[c - 1] != 0) || (c < h - 1 && linePopulation[c + 1] != 0);
+	}
+
+	/***
+	 * This routine computes the generation that follows the previous one. The data structure of the board being
+	 * stepped is reused when it has the right dimensions, otherwise a new one is allocated. The new generation
+	 * starts as a copy of the previous one, and the byte of every cell of the previous generation, looked up in
+	 * a table of the rule, tells if the cell changes. Only the cells that are not on the boundary are computed;
+	 * those on the boundary die.
+	 * @param reusable The data structure the stepped board currently holds
+	 * @param previous The data structure holding the previous generation
+	 * @param height The height of the new generation
+	 * @param width The width of the new generation
+	 * @param rule The rule giving the next state of a cell
+	 * @return The data structure holding the new generation
+	 */
+	public static NeighbourCountDataStructure nextGeneration(NeighbourCountDataStructure reusable,
+			NeighbourCountDataStructure previous, long height, long width, Rule rule) {
+		NeighbourCountDataStructure next = reusable;
+		if (reusable == previous || reusable.numberOfRows != height || reusable.numberOfColumns != width)
+			next = new NeighbourCountDataStructure(height, width);
+
+		// The bytes that change: the alive ones that do not survive and the dead ones that are born. The table
+		// is kept by the data structure, so it is only built again when the rule changes
+		if (!rule.equals(next.changesRule)) {
+			next.changes = new boolean[1 << 5];
+			for (int count = 0; count <= 8; count++) {
+				next.changes[count * NEIGHBOUR] = rule.isAlive(count, false);
+				next.changes[count * NEIGHBOUR + ALIVE] = !rule.isAlive(count, true);
+			}
+			next.changesRule = rule;
+		}
+		boolean[] changes = next.changes;
+
+		boolean sameShape = previous.h == next.h && previous.w == next.w;
+		if (sameShape) {
+			System.arraycopy(previous.cells, 0, next.cells, 0, previous.cells.length);
+			System.arraycopy(previous.linePopulation, 0, next.linePopulation, 0, previous.h);
+			next.boardHash = previous.boardHash;
+		} else {
+			Arrays.fill(next.cells, (byte)0);
+			Arrays.fill(next.linePopulation, 0);
+			next.boardHash = 0;
+		}
+
+		next.cellsExamined = 0;
+		byte[] before = previous.cells;
+		int lines = Math.min(next.h, previous.h);
+		int length = Math.min(next.w, previous.w);
+		for (int c = 0; c < lines; c++) {
+			if (!previous.isBusy(c)) continue;						// Nothing alive in or next to the line
+			next.cellsExamined += length;
+			boolean isBoundary = c == 0 || c == next.h - 1;
+			int i = previous.index(0, c);
+			for (int r = 0; r < length; r++, i++) {
+				int state = before[i];
+				if (!sameShape) {
+					// Starting from an empty board, write the cells that are alive in the new generation
+					if (!isBoundary && r != 0 && r != next.w - 1 && rule.isAlive(state >>> 1, (state & ALIVE) != 0))
+						next.writeDataStructure(r, c, true);
+				} else if (isBoundary || r == 0 || r == next.w - 1) {
+					// The boundary is never computed, so its cells can only die
+					if ((state & ALIVE) != 0) next.flip(i, r, c, false);
+				} else if (changes[state]) next.flip(i, r, c, (state & ALIVE) == 0);
+			}
+		}
+		return next;
+	}
+
+}
@@ -0,0 +1,306 @@
+package conwayJavaFX;
+
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Cleaner;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import jdk.incubator.foreign.MemoryHandles;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+/***
+ * <b> The OffHeapDataStructure Class: Bit-Packed Cells Outside of the Java Heap </b>
+ * <p> Description: This data structure has the layout of the bit-packed implementation, one bit per cell and 64
+ * cells per long, line after line, but the longs are in a native memory segment instead of a long array. The
+ * heap only holds a few small objects and the hash of each line (8 bytes per line) whatever the size of the
+ * board, so a 100,000 x 100,000 board (1.25 GB of cells) needs no larger heap and the garbage collector never has
+ * to scan or copy its cells.
+ *
+ * <p> The segment belongs to a resource scope of its own. releaseDataStructure (or close) frees the memory at
+ * once, and any use of the data structure afterwards throws an IllegalStateException. A data structure that is
+ * never released is freed by a cleaner once it becomes unreachable, like a direct buffer. The segments count
+ * against the limit of direct memory (-XX:MaxDirectMemorySize), which has to be raised for boards larger than
+ * the heap.
+ *
+ * <p> The step (see nextGeneration) reads the words of the previous generation from its segment and writes the
+ * new words to this one, nothing is copied to the heap. The cell addressing is the same as the 2D Array
+ * implementation, so both produce identical boards.
+ *
+ * <p> This class uses the incubating jdk.incubator.foreign module (java --add-modules jdk.incubator.foreign).
+ * Engine.OFF_HEAP checks that the module is present before this class is loaded.
+ * @author JSGREWAL
+ */
+
+public class OffHeapDataStructure implements MemoryDataStructureInterface, AutoCloseable {
+
+	// Frees the segments that are never released explicitly
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	// The longs of a segment, at a byte offset. Called with its exact types it is never adapted (MemoryAccess is,
+	// which allocates while the step is not yet compiled)
+	private static final VarHandle WORDS = MemoryHandles.varHandle(long.class, 8, ByteOrder.nativeOrder());
+
+	private final ResourceScope scope;		// The lifetime of the segment
+	private final MemorySegment cellWords;	// The cells, line after line, 64 cells per long
+	private int h;
+	private int wordsPerLine;				// The number of longs used by each line
+	private long[] interiorMask;			// The bits of a line that are not on the left or right boundary
+	private long[] lineHashes;				// The Zobrist hash of the alive cells of each line
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	/***
+	 * Constructs the board of dimensions height x width in a new native segment, with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public OffHeapDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		int w = (int)width;
+		wordsPerLine = (w + 63) >>> 6;
+		scope = ResourceScope.newSharedScope(CLEANER);
+		cellWords = MemorySegment.allocateNative((long)h * wordsPerLine * 8, 8, scope);	// Filled with zeros
+		lineHashes = new long[h];
+
+		// Only the cells 1 .. width-2 of a line are ever computed by a step, the boundary stays dead
+		interiorMask = new long[wordsPerLine];
+		for (int bit = 1; bit < w - 1; bit++) interiorMask[bit >>> 6] |= 1L << bit;
+	}
+
+	/***
+	 * The index of the word of a line holding the cell r
+	 */
+	private long index(int c, int r) {
+		return (long)c * wordsPerLine + (r >>> 6);
+	}
+
+	/***
+	 * Fetches the word of the segment at an index
+	 */
+	private long getWord(long index) {
+		return (long)WORDS.get(cellWords, index << 3);
+	}
+
+	/***
+	 * Sets the word of the segment at an index
+	 */
+	private void setWord(long index, long word) {
+		WORDS.set(cellWords, index << 3, word);
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		return (getWord(index((int)col, r)) & (1L << r)) != 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		long index = index(c, r);
+		long word = getWord(index);
+		long next = isAlive ? word | (1L << r) : word & ~(1L << r);
+		if (next != word) lineHashes[c] ^= CycleDetector.cellKey(r, c);
+		setWord(index, next);
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the bytes of the native segment, none of which are on the heap
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return cellWords.byteSize();
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step one line at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long lineHash: lineHashes) hash ^= lineHash;
+		return hash;
+	}
+
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, 64 cells at a time from the words of the
+	 * line holding it (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		int line = (int)col;
+		int r = (int)fromRow;
+		int shift = r & 63;
+		int words = (numberOfCells + 63) >>> 6;
+		for (int word = 0; word < words; word++) {
+			int index = (r >>> 6) + word;
+			long bits = word(line, index) >>> shift;
+			if (shift != 0) bits |= word(line, index + 1) << (64 - shift);
+			bitmap[word] = bits;
+		}
+		if ((numberOfCells & 63) != 0) bitmap[words - 1] &= (1L << numberOfCells) - 1;
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap, 64 cells at a time into the words of the
+	 * line holding it (see MemoryDataStructureInterface.writeRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		long out = col * wordsPerLine;
+		int r = (int)fromRow;
+		for (int i = 0; i < numberOfCells; ) {
+			// The cells i .. i+n-1 of the bitmap go to one word of the line, from bit (r + i) % 64
+			int n = Math.min(numberOfCells - i, 64 - ((r + i) & 63));
+			long bits = bitmap[i >>> 6] >>> (i & 63);
+			if ((i & 63) != 0 && n > 64 - (i & 63)) bits |= bitmap[(i >>> 6) + 1] << (64 - (i & 63));
+			long mask = (n == 64 ? -1L : (1L << n) - 1) << ((r + i) & 63);
+			long index = out + ((r + i) >>> 6);
+			long word = getWord(index);
+			long next = (word & ~mask) | ((bits << ((r + i) & 63)) & mask);
+			lineHashes[(int)col] ^= CycleDetector.wordKey(next ^ word, (long)((r + i) >>> 6) << 6, col);
+			setWord(index, next);
+			i += n;
+		}
+	}
+
+	/***
+	 * This routine sets every cell dead, keeping the segment so the data structure can be filled again
+	 * @return True, the segment can always be recycled
+	 */
+	public boolean clearDataStructure() {
+		cellWords.fill((byte)0);
+		Arrays.fill(lineHashes, 0L);
+		return true;
+	}
+
+	/***
+	 * This routine frees the native segment at once. The data structure must not be used afterwards.
+	 */
+	public void releaseDataStructure() {
+		if (scope.isAlive()) scope.close();
+	}
+
+	/***
+	 * Frees the native segment, see releaseDataStructure
+	 */
+	public void close() {
+		releaseDataStructure();
+	}
+
+	/***
+	 * Fetches one word of a line, treating anything outside of the board as dead cells
+	 * @param line The line index
+	 * @param index The index of the word within the line
+	 * @return The 64 cells held by that word
+	 */
+	private long word(int line, int index) {
+		if (line < 0 || line >= h || index < 0 || index >= wordsPerLine) return 0L;
+		return getWord((long)line * wordsPerLine + index);
+	}
+
+	/***
+	 * This routine fills this (empty) data structure with the generation that follows the previous one.
+	 * @param previous The data structure holding the previous generation
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(OffHeapDataStructure previous, Rule rule) {
+		nextGeneration(previous, 1, h - 1, rule);
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next generation, with the same
+	 * adders as BitPackedDataStructure.nextGeneration. The words of the three lines around a line are read once
+	 * each from the segment of the previous generation and slid along, so every word is read three times per
+	 * step instead of nine. Every line is made of its own words, so separate bands of lines can be computed by
+	 * different threads. The hash of a line is the one of the previous generation updated with the cells that
+	 * changed.
+	 * @param previous The data structure holding the previous generation
+	 * @param fromLine The first line to compute, at least 1
+	 * @param toLine The line after the last one to compute, at most height-1
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(OffHeapDataStructure previous, int fromLine, int toLine, Rule rule) {
+		for (int line = fromLine; line < toLine; line++) {
+			long out = (long)line * wordsPerLine;
+			long hash = previous.lineHashes[line];
+
+			// The words i-1, i and i+1 of the line above, the line itself and the line below
+			long aWest = 0, a = previous.word(line - 1, 0), aEast = previous.word(line - 1, 1);
+			long bWest = 0, b = previous.word(line, 0), bEast = previous.word(line, 1);
+			long dWest = 0, d = previous.word(line + 1, 0), dEast = previous.word(line + 1, 1);
+			for (int i = 0; i < wordsPerLine; i++) {
+				long aW = (a << 1) | (aWest >>> 63);
+				long aE = (a >>> 1) | (aEast << 63);
+				long bW = (b << 1) | (bWest >>> 63);
+				long bE = (b >>> 1) | (bEast << 63);
+				long dW = (d << 1) | (dWest >>> 63);
+				long dE = (d >>> 1) | (dEast << 63);
+
+				// Full adders for the line above and the line below, a half adder for the two side cells
+				long aOnes = aW ^ a ^ aE;
+				long aTwos = (aW & a) | (aE & (aW ^ a));
+				long dOnes = dW ^ d ^ dE;
+				long dTwos = (dW & d) | (dE & (dW ^ d));
+				long bOnes = bW ^ bE;
+				long bTwos = bW & bE;
+
+				// Add the three "ones" bits; the carry joins the four "twos" bits, added with two half adders
+				long ones = aOnes ^ dOnes ^ bOnes;
+				long onesCarry = (aOnes & dOnes) | (bOnes & (aOnes ^ dOnes));
+				long twosAD = aTwos ^ dTwos;
+				long twosBC = bTwos ^ onesCarry;
+				long twos = twosAD ^ twosBC;
+				long fours = (aTwos & dTwos) ^ (bTwos & onesCarry) ^ (twosAD & twosBC);
+				long eights = aTwos & dTwos & bTwos & onesCarry;
+
+				long next = rule.nextCells(ones, twos, fours, eights, b) & interiorMask[i];
+				if (next != b) hash ^= CycleDetector.wordKey(next ^ b, (long)i << 6, line);
+				setWord(out + i, next);
+
+				// Slide the three lines by one word
+				aWest = a; a = aEast; aEast = previous.word(line - 1, i + 2);
+				bWest = b; b = bEast; bEast = previous.word(line, i + 2);
+				dWest = d; d = dEast; dEast = previous.word(line + 1, i + 2);
+			}
+			lineHashes[line] = hash;
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+package conwayJavaFX;
+
+import java.util.Random;
+/***
+ * <b> The ParallelScalingReport Class: Thread Scaling of the Parallel Step </b>
+ * <p> Description: This console program runs the same random board for a number of generations with 1, 2, ...
+ * up to N threads and prints the time, the generations per second and the speedup over one thread. It also
+ * checks that every run ends on exactly the same board as the single-threaded one.
+ *
+ * <p> Usage: <code>java conwayJavaFX.ParallelScalingReport [size] [generations] [maxThreads]</code>, the
+ * engine being selected with <code>-Dconway.engine</code> as for the user interface. The defaults are a 1024 x
+ * 1024 board, 100 generations and as many threads as there are processors.
+ * @author JSGREWAL
+ */
+
+public class ParallelScalingReport {
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+		int generations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		Engine engine = Engine.selected();
+		if (!engine.allowsParallelStep()) {
+			System.out.println("The " + engine.getDisplayName() + " engine does not support the parallel step");
+			return;
+		}
+
+		System.out.println("Parallel step scaling (Using " + engine.getDisplayName() + "), " + size + " x " + size
+				+ " board, " + generations + " generations");
+		System.out.println("Threads      Time (ms)   Generations/sec   Speedup   Same board");
+		Board reference = null;
+		double singleThreadTime = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			Board.setParallelism(threads);
+			run(engine, size, 5).release();						// Warm up the compiler and the pool
+			long start = System.nanoTime();
+			Board result = run(engine, size, generations);
+			double milliseconds = (System.nanoTime() - start) / 1e6;
+			if (threads == 1) {
+				reference = result;
+				singleThreadTime = milliseconds;
+			}
+			System.out.println(String.format("%7d %14.1f %17.1f %9.2f   %s", threads, milliseconds,
+					generations * 1000.0 / milliseconds, singleThreadTime / milliseconds,
+					sameCells(reference, result) ? "yes" : "NO"));
+			if (result != reference) result.release();		// The off-heap and mapped cells are freed at once
+		}
+		if (reference != null) reference.release();
+		Board.setParallelism(1);
+	}
+
+	/***
+	 * Steps a random board (always the same one) for a number of generations and returns the final board, the
+	 * other board of the run being released
+	 */
+	private static Board run(Engine engine, int size, int generations) {
+		Board odd = new Board(size, size, engine);
+		Board even = new Board(size, size, engine);
+		Random random = new Random(170027);
+		for (int x = 1; x < size-1; x++)
+			for (int y = 1; y < size-1; y++)
+				if (random.nextInt(3) == 0) odd.cellIsAlive.writeDataStructure(x, y, true);
+		for (int generation = 0; generation < generations; generation++) {
+			if (generation % 2 == 0) even.step(odd);
+			else odd.step(even);
+		}
+		if (generations % 2 == 0) {
+			even.release();
+			return odd;
+		}
+		odd.release();
+		return even;
+	}
+
+	private static boolean sameCells(Board a, Board b) {
+		for (int x = 0; x < a.cellIsAlive.getDataStructureWidth(); x++)
+			for (int y = 0; y < a.cellIsAlive.getDataStructureHeight(); y++)
+				if (a.cellIsAlive.readDataStructure(x, y) != b.cellIsAlive.readDataStructure(x, y)) return false;
+		return true;
+	}
+
+}
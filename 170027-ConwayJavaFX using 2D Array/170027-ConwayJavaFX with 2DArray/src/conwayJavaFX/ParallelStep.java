@@ -0,0 +1,75 @@
+package conwayJavaFX;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+/***
+ * <b> The ParallelStep Class: Fork/Join Step Over Bands of Lines </b>
+ * <p> Description: This task computes a band of lines of the next generation. A band that is too large is split
+ * in two halves that are computed at the same time, until the bands are small enough to be worth a thread.
+ * Every cell of the new board is written by exactly one band and only the previous board is read, so the
+ * bands need no locking and the result is the same as the single-threaded step, whatever the order in which
+ * the bands run.
+ * @author JSGREWAL
+ */
+
+public class ParallelStep extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	// The smallest band worth handing to another thread
+	private static final int MINIMUM_BAND = 8;
+
+	// The pool is kept between generations, and replaced when the parallelism changes
+	private static ForkJoinPool pool;
+
+	private final Board next;
+	private final Board previous;
+	private final int fromLine;
+	private final int toLine;
+	private final int band;
+
+	private ParallelStep(Board next, Board previous, int fromLine, int toLine, int band) {
+		this.next = next;
+		this.previous = previous;
+		this.fromLine = fromLine;
+		this.toLine = toLine;
+		this.band = band;
+	}
+
+	/***
+	 * Computes the band, or splits it in two halves that are computed in parallel
+	 */
+	protected void compute() {
+		if (toLine - fromLine <= band) {
+			next.stepLines(previous, fromLine, toLine);
+			return;
+		}
+		int middle = (fromLine + toLine) >>> 1;
+		invokeAll(new ParallelStep(next, previous, fromLine, middle, band),
+				new ParallelStep(next, previous, middle, toLine, band));
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next board on a fork/join
+	 * pool with the given parallelism, and returns when all of them are done.
+	 * @param next The board receiving the new generation
+	 * @param previous The board holding the previous generation
+	 * @param fromLine The first line to compute
+	 * @param toLine The line after the last one to compute
+	 * @param parallelism The number of threads to use
+	 */
+	public static void run(Board next, Board previous, int fromLine, int toLine, int parallelism) {
+		// Four bands per thread leave room to balance lines that take longer than others
+		int band = Math.max(MINIMUM_BAND, (toLine - fromLine) / (parallelism * 4));
+		poolFor(parallelism).invoke(new ParallelStep(next, previous, fromLine, toLine, band));
+	}
+
+	private static synchronized ForkJoinPool poolFor(int parallelism) {
+		if (pool == null || pool.getParallelism() != parallelism) {
+			if (pool != null) pool.shutdown();
+			pool = new ForkJoinPool(parallelism);
+		}
+		return pool;
+	}
+
+}
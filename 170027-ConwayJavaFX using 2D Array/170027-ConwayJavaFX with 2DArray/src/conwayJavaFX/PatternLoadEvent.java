@@ -0,0 +1,42 @@
+package conwayJavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/***
+ * <b> The PatternLoadEvent Class: Flight Recorder Event of the Loading of a Pattern </b>
+ * <p> Description: The user interface commits this Java Flight Recorder event when the Load button has built
+ * the boards from the pattern file, or resumed them from their mapped files, and drawn the first canvas.
+ * @author JSGREWAL
+ */
+
+@Name("conwayJavaFX.PatternLoad")
+@Label("Pattern Load")
+@Category({"Conway's Game of Life", "User Interface"})
+@Description("The boards built from a pattern file and the first canvas drawn")
+@StackTrace(false)
+public class PatternLoadEvent extends Event {
+
+	@Label("File Name")
+	String fileName;
+
+	@Label("Generation")
+	@Description("The generation loaded, above 0 when a mapped board was resumed")
+	long generation;
+
+	@Label("Board Width")
+	int width;
+
+	@Label("Board Height")
+	int height;
+
+	@Label("Population")
+	long population;
+
+	@Label("Engine")
+	String engine;
+
+}
@@ -0,0 +1,40 @@
+package conwayJavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/***
+ * <b> The PatternValidationEvent Class: Flight Recorder Event of the Check of a Pattern File </b>
+ * <p> Description: The user interface reads the whole pattern file to check it every time the file name
+ * changes. It commits this Java Flight Recorder event for each of these checks, with what was wrong with the
+ * file when it is not valid.
+ * @author JSGREWAL
+ */
+
+@Name("conwayJavaFX.PatternValidation")
+@Label("Pattern Validation")
+@Category({"Conway's Game of Life", "User Interface"})
+@Description("The check of the contents of a pattern file")
+@StackTrace(false)
+public class PatternValidationEvent extends Event {
+
+	@Label("File Name")
+	String fileName;
+
+	@Label("Board Width")
+	int width;
+
+	@Label("Board Height")
+	int height;
+
+	@Label("Valid")
+	boolean valid;
+
+	@Label("Error")
+	@Description("What is wrong with the contents, empty when they are valid")
+	String error;
+
+}
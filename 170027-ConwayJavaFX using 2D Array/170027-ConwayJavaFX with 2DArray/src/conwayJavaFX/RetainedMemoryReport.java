@@ -0,0 +1,72 @@
+package conwayJavaFX;
+
+import java.util.Random;
+/***
+ * <b> The RetainedMemoryReport Class: Heap Taken by Each Engine per Live Cell </b>
+ * <p> Description: This console program fills the data structure of every engine with the same random cells
+ * and measures the heap it really retains with RetainedHeap, next to the size the data structure reports
+ * with getDataStructureSize. The tables shared by every board of an engine are left out, by excluding an
+ * empty data structure of the engine first. The off-heap and mapped engines keep their cells outside of the
+ * heap: their retained heap is only the objects managing the native memory or file, whose size they report
+ * and which is added to their bytes per live cell.
+ *
+ * <p> Usage: <code>java conwayJavaFX.RetainedMemoryReport [size] [density ...]</code>. The defaults are a
+ * 512 x 512 board with 1%, 10% and 50% of its cells alive. Without
+ * <code>--add-opens java.base/java.util=ALL-UNNAMED</code> the JDK collections are not followed and the rows
+ * using them are marked as lower bounds.
+ * @author JSGREWAL
+ */
+
+public class RetainedMemoryReport {
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+		double[] densities = {0.01, 0.1, 0.5};
+		if (args.length > 1) {
+			densities = new double[args.length - 1];
+			for (int i = 1; i < args.length; i++) densities[i - 1] = Double.parseDouble(args[i]);
+		}
+
+		boolean lowerBounds = false;
+		for (double density: densities) {
+			System.out.println(String.format("Retained heap, %d x %d board, %.1f%% of the cells alive", size, size,
+					density * 100));
+			System.out.println("Engine                                   Live cells   Reported bytes    Retained bytes    Objects"
+					+ "   Off-heap bytes   Bytes/live cell");
+			for (Engine engine: Engine.values()) {
+				if (!engine.isAvailable()) continue;
+				MemoryDataStructureInterface empty = engine.newDataStructure(size, size);
+				MemoryDataStructureInterface cells = engine.newDataStructure(size, size);
+				long liveCells = 0;
+				Random random = new Random(170027);
+				for (int x = 1; x < size-1; x++)
+					for (int y = 1; y < size-1; y++)
+						if (random.nextDouble() < density) {
+							cells.writeDataStructure(x, y, true);
+							liveCells++;
+						}
+				if (cells instanceof ContainerDataStructure) ((ContainerDataStructure)cells).optimizeContainers();
+
+				RetainedHeap heap = new RetainedHeap();
+				heap.exclude(empty);
+				long retained = heap.measure(cells);
+				// The cells of these engines are outside of the heap, in the size they report
+				boolean offHeap = cells instanceof OffHeapDataStructure || cells instanceof MappedDataStructure;
+				long offHeapBytes = offHeap ? cells.getDataStructureSize() : 0;
+				boolean closed = heap.getNumberOfClosedObjects() > 0 && !offHeap;
+				lowerBounds |= closed;
+				System.out.println(String.format("%-40s %10d %16d %16d%s %10d %16s %17s", engine.getDisplayName(),
+						liveCells, cells.getDataStructureSize(), retained, closed ? "*" : " ", heap.getNumberOfObjects(),
+						offHeap ? Long.toString(offHeapBytes) : "-",
+						liveCells == 0 ? "-" : String.format("%.2f", (double)(retained + offHeapBytes) / liveCells)));
+				empty.releaseDataStructure();
+				cells.releaseDataStructure();
+			}
+			System.out.println();
+		}
+		if (lowerBounds)
+			System.out.println("* lower bound: the fields of some objects could not be followed, run with "
+					+ "--add-opens java.base/java.util=ALL-UNNAMED");
+	}
+
+}
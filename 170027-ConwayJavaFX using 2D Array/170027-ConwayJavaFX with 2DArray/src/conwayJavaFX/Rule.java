@@ -0,0 +1,269 @@
+package conwayJavaFX;
+/***
+ * <b> The Rule Class: Life-Like Rules Parsed From B/S Rulestrings </b>
+ * <p> Description: A Life-like rule says, for each number of alive neighbours (0 to 8), whether a dead cell is
+ * born and whether an alive cell survives. It is written as a rulestring such as <code>B3/S23</code> (Conway's
+ * Life), <code>B36/S23</code> (HighLife), <code>B3678/S34678</code> (Day &amp; Night) or <code>B2/S</code>
+ * (Seeds); the older survival/birth notation <code>23/3</code> is accepted as well.
+ *
+ * <p> The rulestring is compiled once into two 9-bit masks, bit n of the birth (survival) mask being set when
+ * a dead (alive) cell with n neighbours is alive in the next generation, so applying the rule in a step is a
+ * shift and a test. From the masks the rule also provides the form each step kernel needs: the next state of 64
+ * cells at once from the bit planes of their neighbour counts, the counts that give an alive cell, and the
+ * tables of the lookup table step. Conway's Life keeps its own hardwired expression in all of them, and the 64
+ * cell form is specialised per rule: Life, HighLife, Day &amp; Night and Seeds each have a simplified expression
+ * of their own, any other rule a branch-free selection among its nine counts (see Kernel).
+ *
+ * <p> Rules with B0 (birth with no neighbour at all) would fill the infinite empty space in a single
+ * generation, which the sparse, tiled and active frontier engines rely on never happening, so they are
+ * rejected. The rule used by the boards is selected with the system property <code>conway.rule</code>.
+ * @author JSGREWAL
+ */
+
+public final class Rule {
+
+	// The name of the system property used to select the rule
+	public static final String RULE_PROPERTY = "conway.rule";
+
+	public static final Rule LIFE = parse("B3/S23");
+	public static final Rule HIGHLIFE = parse("B36/S23");
+	public static final Rule DAY_AND_NIGHT = parse("B3678/S34678");
+	public static final Rule SEEDS = parse("B2/S");
+
+	private final int birthMask;		// Bit n: a dead cell with n alive neighbours is born
+	private final int survivalMask;		// Bit n: an alive cell with n alive neighbours survives
+	private final boolean isLife;
+	private final int[] birthCounts;	// The neighbour counts of the birth mask, in increasing order
+	private final int[] survivalCounts;	// The neighbour counts of the survival mask, in increasing order
+	private final long[] birthWords;	// Word n: all ones when a dead cell with n alive neighbours is born
+	private final long[] survivalWords;	// Word n: all ones when an alive cell with n alive neighbours survives
+	private final Kernel kernel;		// The expression applying the rule to 64 cells at once
+
+	private Rule(int birthMask, int survivalMask) {
+		this.birthMask = birthMask;
+		this.survivalMask = survivalMask;
+		isLife = birthMask == 1 << 3 && survivalMask == (1 << 2 | 1 << 3);
+		birthCounts = counts(birthMask);
+		survivalCounts = counts(survivalMask);
+		birthWords = new long[9];
+		survivalWords = new long[9];
+		for (int n = 0; n <= 8; n++) {
+			birthWords[n] = -(birthMask >>> n & 1);
+			survivalWords[n] = -(survivalMask >>> n & 1);
+		}
+		Kernel selected = Kernel.ANY;
+		for (Kernel candidate: Kernel.values())
+			if (candidate.birthMask == birthMask && candidate.survivalMask == survivalMask) selected = candidate;
+		kernel = selected;
+	}
+
+	private static int[] counts(int mask) {
+		int[] counts = new int[Integer.bitCount(mask)];
+		for (int n = 0, i = 0; n <= 8; n++)
+			if ((mask & (1 << n)) != 0) counts[i++] = n;
+		return counts;
+	}
+
+	/***
+	 * This routine parses a rulestring, either B/S (<code>B36/S23</code>) or S/B (<code>23/36</code>), in
+	 * upper or lower case.
+	 * @param rulestring The rulestring
+	 * @return The rule
+	 * @throws IllegalArgumentException when the rulestring is not valid or has B0
+	 */
+	public static Rule parse(String rulestring) {
+		String text = rulestring.trim().toUpperCase();
+		int slash = text.indexOf('/');
+		if (slash < 0) throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has no /");
+		String first = text.substring(0, slash);
+		String second = text.substring(slash + 1);
+		int birthMask;
+		int survivalMask;
+		if (first.startsWith("B") && second.startsWith("S")) {
+			birthMask = mask(first.substring(1), rulestring);
+			survivalMask = mask(second.substring(1), rulestring);
+		} else if (first.startsWith("S") && second.startsWith("B")) {
+			survivalMask = mask(first.substring(1), rulestring);
+			birthMask = mask(second.substring(1), rulestring);
+		} else {
+			survivalMask = mask(first, rulestring);			// The S/B notation without letters
+			birthMask = mask(second, rulestring);
+		}
+		if ((birthMask & 1) != 0)
+			throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has B0, which is not supported");
+		return new Rule(birthMask, survivalMask);
+	}
+
+	private static int mask(String digits, String rulestring) {
+		int mask = 0;
+		for (char digit: digits.toCharArray()) {
+			if (digit < '0' || digit > '8')
+				throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has '" + digit
+						+ "', only the neighbour counts 0 to 8 can be used");
+			mask |= 1 << (digit - '0');
+		}
+		return mask;
+	}
+
+	/***
+	 * This routine reads the conway.rule system property and returns the matching rule. An invalid value
+	 * falls back to Conway's Life after reporting the problem on the console.
+	 * @return the selected rule
+	 */
+	public static Rule selected() {
+		String rulestring = System.getProperty(RULE_PROPERTY);
+		if (rulestring == null || rulestring.trim().isEmpty()) return LIFE;
+		try {
+			return parse(rulestring);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage() + ", using B3/S23");
+			return LIFE;
+		}
+	}
+
+	/***
+	 * Tells if a cell is alive in the next generation
+	 * @param numberAliveCells The number of alive neighbours, 0 to 8
+	 * @param isAlive True when the cell is alive in this generation
+	 * @return True when the cell is alive in the next generation
+	 */
+	public boolean isAlive(int numberAliveCells, boolean isAlive) {
+		return ((isAlive ? survivalMask : birthMask) >>> numberAliveCells & 1) != 0;
+	}
+
+	/***
+	 * This routine applies the rule to 64 cells at once. Each of the four words is one bit of the neighbour
+	 * counts of the 64 cells, so the count of the cell at bit i is formed by bit i of ones, twos, fours and
+	 * eights. The expression is the one selected for the rule when it was parsed (see Kernel).
+	 * @param ones Bit 0 of the neighbour counts
+	 * @param twos Bit 1 of the neighbour counts
+	 * @param fours Bit 2 of the neighbour counts
+	 * @param eights Bit 3 of the neighbour counts
+	 * @param cells The 64 cells in this generation
+	 * @return The 64 cells in the next generation
+	 */
+	public long nextCells(long ones, long twos, long fours, long eights, long cells) {
+		return kernel.nextCells(this, ones, twos, fours, eights, cells);
+	}
+
+	/***
+	 * <b> The Kernel Enumeration: The Expressions Applying a Rule to 64 Cells </b>
+	 * <p> Description: Each constant is the bit-sliced expression of one rule, simplified by hand from its
+	 * masks, and ANY works for every rule. A count of 8 only has the eights bit set, so an expression testing
+	 * twos or fours needs no test of eights. A board steps with a single rule, so the call of the kernel in
+	 * nextCells only ever sees one constant and is inlined by the compiler.
+	 */
+	private enum Kernel {
+
+		// B3/S23: a count of 3 gives birth or survival, a count of 2 keeps an alive cell alive
+		LIFE(1 << 3, 1 << 2 | 1 << 3) {
+			long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells) {
+				return twos & ~fours & ~eights & (ones | cells);
+			}
+		},
+
+		// B36/S23: as Life (counts 2 and 3), and a count of 6 gives birth
+		HIGHLIFE(1 << 3 | 1 << 6, 1 << 2 | 1 << 3) {
+			long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells) {
+				return twos & ((~fours & (ones | cells)) | (fours & ~ones & ~cells));
+			}
+		},
+
+		// B3678/S34678: counts 3, 6, 7 and 8 give birth or survival, a count of 4 keeps an alive cell alive
+		DAY_AND_NIGHT(1 << 3 | 1 << 6 | 1 << 7 | 1 << 8, 1 << 3 | 1 << 4 | 1 << 6 | 1 << 7 | 1 << 8) {
+			long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells) {
+				return eights | (twos & (ones | fours)) | (fours & ~twos & ~ones & cells);
+			}
+		},
+
+		// B2/S: a count of 2 gives birth, no cell survives
+		SEEDS(1 << 2, 0) {
+			long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells) {
+				return twos & ~ones & ~fours & ~cells;
+			}
+		},
+
+		// Any rule: the next state of the cells for each count, then a tree of multiplexers driven by the bits
+		// of the count picks the one of each cell
+		ANY(-1, -1) {
+			long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells) {
+				long[] born = rule.birthWords;
+				long[] survives = rule.survivalWords;
+				long dead = ~cells;
+				long next0 = (cells & survives[0]) | (dead & born[0]);
+				long next1 = (cells & survives[1]) | (dead & born[1]);
+				long next2 = (cells & survives[2]) | (dead & born[2]);
+				long next3 = (cells & survives[3]) | (dead & born[3]);
+				long next4 = (cells & survives[4]) | (dead & born[4]);
+				long next5 = (cells & survives[5]) | (dead & born[5]);
+				long next6 = (cells & survives[6]) | (dead & born[6]);
+				long next7 = (cells & survives[7]) | (dead & born[7]);
+				long next8 = (cells & survives[8]) | (dead & born[8]);
+
+				long next01 = next0 ^ ((next0 ^ next1) & ones);
+				long next23 = next2 ^ ((next2 ^ next3) & ones);
+				long next45 = next4 ^ ((next4 ^ next5) & ones);
+				long next67 = next6 ^ ((next6 ^ next7) & ones);
+				long next03 = next01 ^ ((next01 ^ next23) & twos);
+				long next47 = next45 ^ ((next45 ^ next67) & twos);
+				long next07 = next03 ^ ((next03 ^ next47) & fours);
+				return next07 ^ ((next07 ^ next8) & eights);
+			}
+		};
+
+		private final int birthMask;		// The masks of the rule of the expression, -1 for ANY
+		private final int survivalMask;
+
+		Kernel(int birthMask, int survivalMask) {
+			this.birthMask = birthMask;
+			this.survivalMask = survivalMask;
+		}
+
+		abstract long nextCells(Rule rule, long ones, long twos, long fours, long eights, long cells);
+	}
+
+	/***
+	 * Getter for the neighbour counts that give birth to a dead cell
+	 * @return the counts, in increasing order
+	 */
+	public int[] getBirthCounts() {
+		return birthCounts.clone();
+	}
+
+	/***
+	 * Getter for the neighbour counts that keep an alive cell alive
+	 * @return the counts, in increasing order
+	 */
+	public int[] getSurvivalCounts() {
+		return survivalCounts.clone();
+	}
+
+	/***
+	 * Tells if this rule is Conway's Life, B3/S23
+	 * @return true for Conway's Life
+	 */
+	public boolean isLife() {
+		return isLife;
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof Rule && ((Rule)other).birthMask == birthMask && ((Rule)other).survivalMask == survivalMask;
+	}
+
+	public int hashCode() {
+		return birthMask << 9 | survivalMask;
+	}
+
+	/***
+	 * Formats the rule as a B/S rulestring
+	 * @return the rulestring, e.g. B3/S23
+	 */
+	public String toString() {
+		String result = "B";
+		for (int n: birthCounts) result += n;
+		result += "/S";
+		for (int n: survivalCounts) result += n;
+		return result;
+	}
+
+}
@@ -0,0 +1,330 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The RunLengthDataStructure Class: Run-Length Encoded Rows </b>
+ * <p> Description: Each row of the board, as it is displayed, is stored as the sorted list of its runs of alive
+ * cells, a run being the pair [start, end) of the first alive cell and the first dead cell after it. A wire, a
+ * wall or a line of any length costs 8 bytes, and an empty row costs nothing but its empty list.
+ *
+ * <p> The step works on the runs directly. The number of alive cells around a cell can only change where a run
+ * of the three rows around it starts or ends, one cell before or after, so the row is cut at those points and
+ * the rule is applied once per piece instead of once per cell. The pieces that are alive are appended as the
+ * runs of the new row. The cost of a step follows the number of runs, not the length of the rows.
+ *
+ * <p> The cell addressing is the same as the 2D Array implementation, so both produce identical boards.
+ * @author JSGREWAL
+ */
+
+public class RunLengthDataStructure implements MemoryDataStructureInterface {
+
+	private int[][] runs;			// For each row, start and end of its runs, run after run in increasing order
+	private int[] runLengths;		// The number of ints used in each row array, twice its number of runs
+	private long[] rowHashes;		// The Zobrist hash of the alive cells of each row
+	private int[] breakpoints;		// The points at which the step cuts a row, reused from one step to the next
+	private int h;
+	private int w;
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	/***
+	 * Constructs the board of dimensions height x width, with every cell dead
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public RunLengthDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		w = (int)width;
+		runs = new int[h][];
+		runLengths = new int[h];
+		rowHashes = new long[h];
+		for (int c = 0; c < h; c++) runs[c] = new int[4];
+		breakpoints = new int[16];
+	}
+
+	/***
+	 * Finds the run of a row that holds the cell r, and returns its index in the row array, or -1 when the
+	 * cell is dead
+	 */
+	private int find(int c, int r) {
+		int k = runsStartingBefore(c, r + 1);
+		return k > 0 && runs[c][2 * k - 1] > r ? 2 * (k - 1) : -1;
+	}
+
+	/***
+	 * The number of runs of a row that start before r
+	 */
+	private int runsStartingBefore(int c, int r) {
+		int[] row = runs[c];
+		int low = 0;
+		int high = runLengths[c] >>> 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (row[2 * middle] < r) low = middle + 1;
+			else high = middle;
+		}
+		return low;
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		return find(c, r) >= 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure. A birth extends, joins or adds a run, a death shortens, splits or removes one.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		int found = find(c, r);
+		if ((found >= 0) == isAlive) return;
+		rowHashes[c] ^= CycleDetector.cellKey(r, c);
+		int[] runsOfRow = runs[c];
+		if (isAlive) {
+			int k = 2 * runsStartingBefore(c, r);		// The run after the cell
+			boolean joinsBefore = k > 0 && runsOfRow[k - 1] == r;
+			boolean joinsAfter = k < runLengths[c] && runsOfRow[k] == r + 1;
+			if (joinsBefore && joinsAfter) {
+				runsOfRow[k - 1] = runsOfRow[k + 1];				// The cell fills the gap between two runs
+				remove(c, k);
+			} else if (joinsBefore) runsOfRow[k - 1] = r + 1;
+			else if (joinsAfter) runsOfRow[k] = r;
+			else insert(c, k, r, r + 1);
+		} else {
+			int start = runsOfRow[found];
+			int end = runsOfRow[found + 1];
+			if (start == r && end == r + 1) remove(c, found);
+			else if (start == r) runsOfRow[found] = r + 1;
+			else if (end == r + 1) runsOfRow[found + 1] = r;
+			else {
+				runsOfRow[found + 1] = r;					// The cell splits the run in two
+				insert(c, found + 2, r + 1, end);
+			}
+		}
+	}
+
+	/***
+	 * Inserts the run [start, end) at index k of a row array
+	 */
+	private void insert(int c, int k, int start, int end) {
+		if (runLengths[c] + 2 > runs[c].length) runs[c] = Arrays.copyOf(runs[c], runs[c].length * 2);
+		int[] row = runs[c];
+		System.arraycopy(row, k, row, k + 2, runLengths[c] - k);
+		row[k] = start;
+		row[k + 1] = end;
+		runLengths[c] += 2;
+	}
+
+	/***
+	 * Removes the run at index k of a row array
+	 */
+	private void remove(int c, int k) {
+		System.arraycopy(runs[c], k + 2, runs[c], k, runLengths[c] - k - 2);
+		runLengths[c] -= 2;
+	}
+
+	/***
+	 * Appends the cells [start, end) to a row being built from left to right, extending its last run when they
+	 * follow it
+	 */
+	private void append(int c, int start, int end) {
+		int length = runLengths[c];
+		if (length > 0 && runs[c][length - 1] == start) runs[c][length - 1] = end;
+		else insert(c, length, start, end);
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the arrays of runs of the rows, spare room included, and the
+	 * hash of each row
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		long size = runLengths.length * 12L;
+		for (int[] row: runs) size += row.length * 4L;
+		return size;
+	}
+
+	/***
+	 * Getter for the number of runs of alive cells on the board
+	 * @return the number of runs
+	 */
+	public long getNumberOfRuns() {
+		long numberOfRuns = 0;
+		for (int length: runLengths) numberOfRuns += length >>> 1;
+		return numberOfRuns;
+	}
+
+	/***
+	 * This routine sets every cell dead, keeping the arrays of the rows so the data structure can be reused
+	 * @return true, the data structure is empty
+	 */
+	public boolean clearDataStructure() {
+		Arrays.fill(runLengths, 0);
+		Arrays.fill(rowHashes, 0L);
+		return true;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step one row at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long rowHash: rowHashes) hash ^= rowHash;
+		return hash;
+	}
+
+	/***
+	 * The exclusive or of the keys of the cells alive in only one of two row arrays, found by walking the starts
+	 * and ends of both runs together: the cost follows the number of runs and of cells that differ
+	 */
+	private static long differenceKey(int[] before, int beforeLength, int[] after, int afterLength, int c) {
+		long key = 0;
+		boolean inBefore = false;
+		boolean inAfter = false;
+		for (int i = 0, j = 0, from = 0; i < beforeLength || j < afterLength; ) {
+			int point = Math.min(i < beforeLength ? before[i] : Integer.MAX_VALUE, j < afterLength ? after[j] : Integer.MAX_VALUE);
+			if (inBefore != inAfter) for (int r = from; r < point; r++) key ^= CycleDetector.cellKey(r, c);
+			if (i < beforeLength && before[i] == point) {
+				inBefore = !inBefore;
+				i++;
+			}
+			if (j < afterLength && after[j] == point) {
+				inAfter = !inAfter;
+				j++;
+			}
+			from = point;
+		}
+		return key;
+	}
+
+	/***
+	 * This routine reads a segment of a row of the board into a bitmap, setting the bits of the runs that
+	 * overlap it (see MemoryDataStructureInterface.readRowSegment)
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		int c = (int)col;
+		int[] row = runs[c];
+		int from = (int)fromRow;
+		for (int k = Math.max(0, 2 * runsStartingBefore(c, from) - 2); k < runLengths[c] && row[k] < from + numberOfCells; k += 2)
+			for (int i = Math.max(row[k], from) - from; i < Math.min(row[k + 1], from + numberOfCells) - from; i++)
+				bitmap[i >>> 6] |= 1L << i;
+	}
+
+	/***
+	 * The number of alive cells from first to last (both included) in the runs of a row array, starting the
+	 * search at the run k, the first one that may reach first
+	 */
+	private static int aliveBetween(int[] runs, int length, int k, int first, int last) {
+		int count = 0;
+		for (; k < length && runs[k] <= last; k += 2)
+			count += Math.max(0, Math.min(runs[k + 1], last + 1) - Math.max(runs[k], first));
+		return count;
+	}
+
+	/***
+	 * Moves the index k of a row array past the runs that end before first
+	 */
+	private static int skipRunsBefore(int[] runs, int length, int k, int first) {
+		while (k < length && runs[k + 1] <= first) k += 2;
+		return k;
+	}
+
+	/***
+	 * This routine fills this (empty) data structure with the generation that follows the previous one. For each
+	 * row that is not on the boundary, the cells from 1 to width-2 are cut into pieces at the starts and ends of
+	 * the runs of the three rows around it, shifted by -1, 0 and +1; every cell of a piece has the same
+	 * neighbourhood, so the rule is applied to the first cell and the piece is appended when it is alive. Nothing
+	 * is allocated once the arrays have grown to the size the pattern needs. The hash of a row is the one of the
+	 * previous generation updated with the cells that differ between the old and new runs.
+	 * @param previous The data structure holding the previous generation
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(RunLengthDataStructure previous, Rule rule) {
+		for (int c = 1; c < Math.min(h - 1, previous.h + 1); c++) {
+
+			// The starts and ends of the runs of a row are in increasing order, so the points where the
+			// neighbourhood can change are gathered in order by merging those of the three rows, each start or
+			// end b giving b-1, b and b+1 within the cells that are computed
+			int[] above = previous.runs[c - 1];
+			int[] row = c < previous.h ? previous.runs[c] : above;
+			int[] below = c + 1 < previous.h ? previous.runs[c + 1] : above;
+			int aboveLength = previous.runLengths[c - 1];
+			int rowLength = c < previous.h ? previous.runLengths[c] : 0;
+			int belowLength = c + 1 < previous.h ? previous.runLengths[c + 1] : 0;
+			if (aboveLength + rowLength + belowLength == 0) continue;	// Nothing alive around the row
+			if (3 * (aboveLength + rowLength + belowLength) + 2 > breakpoints.length)
+				breakpoints = new int[6 * (aboveLength + rowLength + belowLength) + 4];
+			int n = 0;
+			breakpoints[n++] = 1;
+			for (int i = 0, j = 0, k = 0; i < aboveLength || j < rowLength || k < belowLength; ) {
+				int b = Integer.MAX_VALUE;
+				if (i < aboveLength) b = above[i];
+				if (j < rowLength) b = Math.min(b, row[j]);
+				if (k < belowLength) b = Math.min(b, below[k]);
+				if (i < aboveLength && above[i] == b) i++;
+				if (j < rowLength && row[j] == b) j++;
+				if (k < belowLength && below[k] == b) k++;
+				for (int d = -1; d <= 1; d++) {
+					int point = Math.min(w - 1, Math.max(1, b + d));
+					if (point > breakpoints[n - 1]) breakpoints[n++] = point;
+				}
+			}
+			if (breakpoints[n - 1] < w - 1) breakpoints[n++] = w - 1;
+
+			// Apply the rule once to each piece between two points, counting the cells around its first cell
+			// from the runs of the three rows, which are walked along with the pieces
+			for (int i = 0, a = 0, r = 0, b = 0; i < n - 1; i++) {
+				int start = breakpoints[i];
+				a = skipRunsBefore(above, aboveLength, a, start - 1);
+				r = skipRunsBefore(row, rowLength, r, start - 1);
+				b = skipRunsBefore(below, belowLength, b, start - 1);
+				boolean isAlive = aliveBetween(row, rowLength, r, start, start) != 0;
+				int numberAliveCells = aliveBetween(above, aboveLength, a, start - 1, start + 1)
+						+ aliveBetween(row, rowLength, r, start - 1, start + 1)
+						+ aliveBetween(below, belowLength, b, start - 1, start + 1) - (isAlive ? 1 : 0);
+				if (rule.isAlive(numberAliveCells, isAlive)) append(c, start, breakpoints[i + 1]);
+			}
+			rowHashes[c] = (c < previous.h ? previous.rowHashes[c] : 0L)
+					^ differenceKey(row, rowLength, runs[c], runLengths[c], c);
+		}
+	}
+
+}
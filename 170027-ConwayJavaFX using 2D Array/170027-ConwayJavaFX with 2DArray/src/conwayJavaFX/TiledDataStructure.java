@@ -0,0 +1,251 @@
+package conwayJavaFX;
+/***
+ * <b> The TiledDataStructure Class: Tiled Implementation With Dormant Tiles </b>
+ * <p> Description: This data structure splits the board into tiles of 64 x 64 cells. Each line of a tile is a
+ * single long, so a tile is a long[64], and the tiles are only allocated when a cell in them becomes alive:
+ * empty regions of the board cost no memory at all.
+ *
+ * <p> Every tile also remembers whether it changed in the generation that produced it. A tile can only change in
+ * the next generation when it, or one of the 8 tiles around it, changed in this one. All other tiles are
+ * dormant; the step does not compute them and simply shares them with the new generation. Still lifes and empty
+ * space therefore stop costing anything, and only the tiles holding oscillators or moving patterns are computed,
+ * 64 cells at a time with the same adder logic as the bit-packed data structure.
+ *
+ * <p> The cell addressing is the same as the 2D Array implementation, so both produce identical boards.
+ * @author JSGREWAL
+ */
+
+public class TiledDataStructure implements MemoryDataStructureInterface {
+
+	public static final int TILE_SIZE = 64;				// Cells along each side of a tile, one long per line
+	private static final int TILE_SHIFT = 6;
+
+	private long[][] tiles;				// The tiles, tile line after tile line; null when all cells are dead
+	private boolean[] isOwned;			// False when the tile is shared with another generation
+	private boolean[] hasChanged;		// True when the tile changed to reach this generation
+	private long[] tileHashes;			// The Zobrist hash of the alive cells of each tile
+	private int tilesAcross;
+	private int tilesDown;
+	private long[] interiorMask;		// For each tile column, the bits not on the left or right boundary
+	private int h;
+	private int w;
+	private long numberOfRows;
+	private long numberOfColumns;
+	private int tilesComputed;			// The tiles computed by the step that produced this generation
+
+	/***
+	 * Constructs the tiled board of dimensions height x width, without allocating any tile
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public TiledDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		h = (int)height;
+		w = (int)width;
+		tilesAcross = (w + TILE_SIZE - 1) >>> TILE_SHIFT;
+		tilesDown = (h + TILE_SIZE - 1) >>> TILE_SHIFT;
+		tiles = new long[tilesAcross * tilesDown][];
+		isOwned = new boolean[tiles.length];
+		hasChanged = new boolean[tiles.length];
+		tileHashes = new long[tiles.length];
+		interiorMask = new long[tilesAcross];
+		for (int bit = 1; bit < w - 1; bit++) interiorMask[bit >>> TILE_SHIFT] |= 1L << bit;
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		long[] tile = tiles[(c >>> TILE_SHIFT) * tilesAcross + (r >>> TILE_SHIFT)];
+		return tile != null && (tile[c & (TILE_SIZE - 1)] & (1L << r)) != 0;
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure. The tile is allocated on the first alive cell, copied when it is shared with another
+	 * generation, and marked as changed when the cell flips.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		if (r < 0 || r >= w || c < 0 || c >= h) throw new ArrayIndexOutOfBoundsException(r < 0 || r >= w ? r : c);
+		int t = (c >>> TILE_SHIFT) * tilesAcross + (r >>> TILE_SHIFT);
+		if (tiles[t] == null) {
+			if (!isAlive) return;
+			tiles[t] = new long[TILE_SIZE];
+			isOwned[t] = true;
+		} else if (!isOwned[t]) {
+			tiles[t] = tiles[t].clone();
+			isOwned[t] = true;
+		}
+		long word = tiles[t][c & (TILE_SIZE - 1)];
+		long next = isAlive ? word | (1L << r) : word & ~(1L << r);
+		tiles[t][c & (TILE_SIZE - 1)] = next;
+		if (next != word) tileHashes[t] ^= CycleDetector.cellKey(r, c);
+		hasChanged[t] = true;
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of data structure
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of data structure
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure: the allocated tiles and the tile table
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		long size = tiles.length * 14L;						// Reference, the two flags and the hash of every tile
+		for (long[] tile: tiles) if (tile != null) size += TILE_SIZE * 8L;
+		return size;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step one tile at a time
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for (long tileHash: tileHashes) hash ^= tileHash;
+		return hash;
+	}
+
+	/***
+	 * Getter for the number of tiles computed by the step that produced this generation
+	 * @return the number of active tiles
+	 */
+	public int getTilesComputed() {
+		return tilesComputed;
+	}
+
+	/***
+	 * Getter for the number of tiles of the board
+	 * @return the number of tiles
+	 */
+	public int getNumberOfTiles() {
+		return tiles.length;
+	}
+
+	/***
+	 * Fetches the word of a line within a tile column, treating anything outside of the board or in an empty tile
+	 * as dead cells
+	 */
+	private long word(int line, int tileCol) {
+		if (line < 0 || line >= h || tileCol < 0 || tileCol >= tilesAcross) return 0L;
+		long[] tile = tiles[(line >>> TILE_SHIFT) * tilesAcross + tileCol];
+		return tile == null ? 0L : tile[line & (TILE_SIZE - 1)];
+	}
+
+	/***
+	 * Tells if the tile, or any of the 8 tiles around it, changed to reach this generation
+	 */
+	private boolean isActive(int tileLine, int tileCol) {
+		for (int tl = Math.max(0, tileLine - 1); tl <= Math.min(tilesDown - 1, tileLine + 1); tl++)
+			for (int tc = Math.max(0, tileCol - 1); tc <= Math.min(tilesAcross - 1, tileCol + 1); tc++)
+				if (hasChanged[tl * tilesAcross + tc]) return true;
+		return false;
+	}
+
+	/***
+	 * This routine fills this (empty) data structure with the generation that follows the previous one. Dormant
+	 * tiles are shared with the previous generation; the active ones are computed a line (64 cells) at a time.
+	 * When the two boards do not have the same dimensions every tile is computed. The hash of a tile is shared
+	 * along with it, or updated with the cells that changed.
+	 * @param previous The data structure holding the previous generation
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(TiledDataStructure previous, Rule rule) {
+		boolean sameShape = previous.h == h && previous.w == w;
+		tilesComputed = 0;
+		for (int tileLine = 0; tileLine < tilesDown; tileLine++)
+			for (int tileCol = 0; tileCol < tilesAcross; tileCol++) {
+				int t = tileLine * tilesAcross + tileCol;
+
+				// A dormant tile is the same in the new generation
+				if (sameShape && !previous.isActive(tileLine, tileCol)) {
+					tiles[t] = previous.tiles[t];
+					tileHashes[t] = previous.tileHashes[t];
+					continue;
+				}
+				tilesComputed++;
+
+				long[] tile = null;
+				boolean changed = false;
+				long[] before = sameShape ? previous.tiles[t] : null;
+				long hash = sameShape ? previous.tileHashes[t] : 0L;
+				int firstLine = Math.max(1, tileLine << TILE_SHIFT);
+				int lastLine = Math.min(h - 1, (tileLine + 1) << TILE_SHIFT);
+				for (int line = firstLine; line < lastLine; line++) {
+					long a = previous.word(line - 1, tileCol);
+					long b = previous.word(line, tileCol);
+					long d = previous.word(line + 1, tileCol);
+					long aW = (a << 1) | (previous.word(line - 1, tileCol - 1) >>> 63);
+					long aE = (a >>> 1) | (previous.word(line - 1, tileCol + 1) << 63);
+					long bW = (b << 1) | (previous.word(line, tileCol - 1) >>> 63);
+					long bE = (b >>> 1) | (previous.word(line, tileCol + 1) << 63);
+					long dW = (d << 1) | (previous.word(line + 1, tileCol - 1) >>> 63);
+					long dE = (d >>> 1) | (previous.word(line + 1, tileCol + 1) << 63);
+
+					// Add up the neighbours with full adders, as in BitPackedDataStructure.nextGeneration
+					long aOnes = aW ^ a ^ aE;
+					long aTwos = (aW & a) | (aE & (aW ^ a));
+					long dOnes = dW ^ d ^ dE;
+					long dTwos = (dW & d) | (dE & (dW ^ d));
+					long bOnes = bW ^ bE;
+					long bTwos = bW & bE;
+					long ones = aOnes ^ dOnes ^ bOnes;
+					long onesCarry = (aOnes & dOnes) | (bOnes & (aOnes ^ dOnes));
+					long twosAD = aTwos ^ dTwos;
+					long twosBC = bTwos ^ onesCarry;
+					long twos = twosAD ^ twosBC;
+					long fours = (aTwos & dTwos) ^ (bTwos & onesCarry) ^ (twosAD & twosBC);
+					long eights = aTwos & dTwos & bTwos & onesCarry;
+					long next = rule.nextCells(ones, twos, fours, eights, b) & interiorMask[tileCol];
+
+					// Only allocate the tile once a cell in it is alive
+					if (next != 0) {
+						if (tile == null) tile = new long[TILE_SIZE];
+						tile[line & (TILE_SIZE - 1)] = next;
+					}
+					long last = before == null ? 0L : before[line & (TILE_SIZE - 1)];
+					if (next != last) {
+						changed = true;
+						hash ^= CycleDetector.wordKey(next ^ last, (long)tileCol << TILE_SHIFT, line);
+					}
+				}
+				// The boundary lines of the board are never computed, they can only change by being cleared
+				if (before != null && (firstLine != tileLine << TILE_SHIFT || lastLine != (tileLine + 1) << TILE_SHIFT))
+					for (int line = tileLine << TILE_SHIFT; line < Math.min(h, (tileLine + 1) << TILE_SHIFT); line++)
+						if ((line < firstLine || line >= lastLine) && before[line & (TILE_SIZE - 1)] != 0) {
+							changed = true;
+							hash ^= CycleDetector.wordKey(before[line & (TILE_SIZE - 1)], (long)tileCol << TILE_SHIFT, line);
+						}
+				tiles[t] = tile;
+				tileHashes[t] = hash;
+				isOwned[t] = true;
+				hasChanged[t] = changed || !sameShape;
+			}
+	}
+
+}
@@ -0,0 +1,231 @@
+package conwayJavaFX;
+/***
+ * <b> The UnboundedSparseDataStructure Class: Sparse Implementation Without a Boundary </b>
+ * <p> Description: This data structure only stores the alive cells. Each one is a single long, the col index in
+ * the upper 32 bits and the row index in the lower 32 bits, kept in an open-addressing hash set of longs (linear
+ * probing, no boxing, no entry objects). Its memory is proportional to the population, whatever the area the
+ * pattern covers.
+ *
+ * <p> The board has no boundary: cells outside of height x width are stepped like any other and keep living,
+ * so a glider gun can emit for millions of generations. The height and width only describe the part of the board
+ * that is displayed. Coordinates are 32-bit and wrap around, which makes the universe a torus of 2^32 x 2^32
+ * cells, far beyond what a pattern can reach. The cell at (-2^31, -2^31) is the one coordinate that cannot be
+ * stored and always stays dead.
+ *
+ * <p> Inside the displayed part the cell addressing is the same as the 2D Array implementation, but since
+ * nothing is clipped at the boundary, patterns that reach it evolve differently.
+ * @author JSGREWAL
+ */
+
+public class UnboundedSparseDataStructure implements MemoryDataStructureInterface {
+
+	// Keys are stored flipped by this constant so that 0 can mark an empty slot; it is the key of (-2^31, -2^31)
+	private static final long EMPTY = 0L;
+	private static final long FLIP = 0x8000000080000000L;
+	private static final int MINIMUM_CAPACITY = 16;
+
+	private long[] liveCells;			// The hash set of the alive cells, EMPTY in the free slots
+	private int population;
+	private long boardHash;				// The Zobrist hash of the alive cells
+	private int mask;					// The capacity minus one, the capacity being a power of two
+	private long numberOfRows;
+	private long numberOfColumns;
+
+	/***
+	 * Constructs the board with every cell dead; height x width is the part of the board that is displayed
+	 * @param height number of rows
+	 * @param width number of cols
+	 */
+	public UnboundedSparseDataStructure(long height, long width) {
+		this(height, width, MINIMUM_CAPACITY);
+	}
+
+	private UnboundedSparseDataStructure(long height, long width, int capacity) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		liveCells = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/***
+	 * Packs a cell into its key
+	 */
+	private static long key(long row, long col) {
+		return ((col << 32) | (row & 0xFFFFFFFFL)) ^ FLIP;
+	}
+
+	/***
+	 * Spreads the bits of a key to find its slot
+	 */
+	private int slot(long key) {
+		return (int)((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	/***
+	 * This routine will take row index and column index as parameters and tell if the cell is alive or not.
+	 * @param row The Row Index
+	 * @param col The Col Index
+	 * @return True if cell is Alive and False if cell is dead
+	 */
+	public boolean readDataStructure(long row, long col) {
+		return contains(key(row, col));
+	}
+
+	/***
+	 * This routine will take row index, column index and boolean signifier (cell is alive or dead) and insert it to
+	 * the data-structure.
+	 * @param row The row index
+	 * @param col The col index
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		long key = key(row, col);
+		if (key == EMPTY) return;						// The one cell that cannot be stored
+		if (isAlive ? add(key) : remove(key)) boardHash ^= cellKey(key);
+	}
+
+	/***
+	 * Getter for Data Structure Height
+	 * @return the height of the displayed part of the board
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Data Structure Width
+	 * @return the width of the displayed part of the board
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size Occupied by Data Structure
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		return liveCells.length * 8L;
+	}
+
+	/***
+	 * Getter for the number of alive cells, including those outside of the displayed part
+	 * @return the population
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+	/***
+	 * Getter for the Zobrist hash of the board, kept up to date by the writes and the step, the alive cells
+	 * outside of the displayed part included
+	 * @return The hash of the board, 0 when every cell is dead
+	 */
+	public long getBoardHash() {
+		return boardHash;
+	}
+
+	/***
+	 * The Zobrist key of the cell of a key, with the 32-bit coordinates it is stored with
+	 */
+	private static long cellKey(long key) {
+		long cell = key ^ FLIP;
+		return CycleDetector.cellKey((int)cell, (int)(cell >> 32));
+	}
+
+	private boolean contains(long key) {
+		for (int i = slot(key); liveCells[i] != EMPTY; i = (i + 1) & mask)
+			if (liveCells[i] == key) return true;
+		return false;
+	}
+
+	private boolean add(long key) {
+		int i = slot(key);
+		for (; liveCells[i] != EMPTY; i = (i + 1) & mask)
+			if (liveCells[i] == key) return false;
+		liveCells[i] = key;
+		if (++population * 2 > liveCells.length) resize(liveCells.length * 2);
+		return true;
+	}
+
+	/***
+	 * Removes a key, shifting back the keys that follow it in the same run so that no probe is broken
+	 */
+	private boolean remove(long key) {
+		int i = slot(key);
+		for (; liveCells[i] != key; i = (i + 1) & mask)
+			if (liveCells[i] == EMPTY) return false;
+		population--;
+		for (int next = (i + 1) & mask; liveCells[next] != EMPTY; next = (next + 1) & mask) {
+			int home = slot(liveCells[next]);
+			// Move the key back when its home slot is not between the hole and its current slot
+			if (((next - home) & mask) >= ((next - i) & mask)) {
+				liveCells[i] = liveCells[next];
+				i = next;
+			}
+		}
+		liveCells[i] = EMPTY;
+		return true;
+	}
+
+	private void resize(int capacity) {
+		long[] old = liveCells;
+		liveCells = new long[capacity];
+		mask = capacity - 1;
+		for (long key: old)
+			if (key != EMPTY) {
+				int i = slot(key);
+				while (liveCells[i] != EMPTY) i = (i + 1) & mask;
+				liveCells[i] = key;
+			}
+	}
+
+	/***
+	 * This routine fills this (empty) data structure with the generation that follows the previous one. Every
+	 * alive cell adds 2 to the count of each of its 8 neighbours and 1 to its own, in a hash table of counts
+	 * keyed the same way as the cells, so a count is twice the number of alive neighbours plus the state of the
+	 * cell. Only the cells next to an alive cell are ever looked at. The hash of the new generation is the one of
+	 * the previous generation updated with the cells whose state changes.
+	 * @param previous The data structure holding the previous generation
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public void nextGeneration(UnboundedSparseDataStructure previous, Rule rule) {
+		int capacity = MINIMUM_CAPACITY;
+		while (capacity < previous.population * 18) capacity <<= 1;	// Up to 9 counts per cell, half full
+		long[] countKeys = new long[capacity];
+		byte[] counts = new byte[capacity];
+		int countMask = capacity - 1;
+
+		for (long key: previous.liveCells) {
+			if (key == EMPTY) continue;
+			long cell = key ^ FLIP;
+			int row = (int)cell;
+			int col = (int)(cell >> 32);
+			for (int dc = -1; dc <= 1; dc++)
+				for (int dr = -1; dr <= 1; dr++) {
+					long neighbour = key(row + dr, col + dc);
+					if (neighbour == EMPTY) continue;
+					int i = (int)((neighbour * 0x9E3779B97F4A7C15L) >>> 32) & countMask;
+					while (countKeys[i] != EMPTY && countKeys[i] != neighbour) i = (i + 1) & countMask;
+					countKeys[i] = neighbour;
+					counts[i] += dr == 0 && dc == 0 ? 1 : 2;
+				}
+		}
+
+		// Start the new set at a size that fits the previous population
+		capacity = MINIMUM_CAPACITY;
+		while (capacity < previous.population * 2) capacity <<= 1;
+		liveCells = new long[capacity];
+		mask = capacity - 1;
+		population = 0;
+		boardHash = previous.boardHash;
+		boolean[] isAlive = new boolean[18];						// The next state of each count
+		for (int count = 0; count < isAlive.length; count++) isAlive[count] = rule.isAlive(count >>> 1, (count & 1) != 0);
+		for (int i = 0; i < countKeys.length; i++)
+			if (countKeys[i] != EMPTY) {
+				if (isAlive[counts[i]]) add(countKeys[i]);
+				if (isAlive[counts[i]] != ((counts[i] & 1) != 0)) boardHash ^= cellKey(countKeys[i]);
+			}
+	}
+
+}
@@ -0,0 +1,89 @@
+package conwayJavaFX;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+/***
+ * <b> The VectorStep Class: SIMD Step Kernel Using the Vector API </b>
+ * <p> Description: This kernel computes the next generation of the 2D Array from its byte-packed copy (one byte
+ * per cell). For as many cells as the processor's vector registers hold bytes (16, 32 or 64), the eight
+ * neighbour bytes are loaded as shifted vectors of the three lines and added together, and the rule is applied
+ * to all of those cells with two vector comparisons (one per neighbour count of the rule for the other rules).
+ * The cells left over at the end of a line are computed one by one.
+ *
+ * <p> This class uses the incubating jdk.incubator.vector module. The Board only loads it after checking that
+ * the module is present (see Board.setVectorStep), and otherwise keeps using the scalar step.
+ * @author JSGREWAL
+ */
+
+public class VectorStep {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final ByteVector DEAD = ByteVector.zero(SPECIES);		// Made once, the step allocates nothing
+
+	private VectorStep() {
+	}
+
+	/***
+	 * This routine computes the lines fromLine up to (not including) toLine of the next generation, writing
+	 * them into both the byte-packed copy and the boolean array of the new data structure.
+	 * @param next The (empty) data structure receiving the new generation
+	 * @param previous The data structure holding the previous generation, at least as tall and as wide
+	 * @param fromLine The first line to compute, at least 1
+	 * @param toLine The line after the last one to compute, at most height-1
+	 * @param rule The rule giving the next state of a cell
+	 */
+	public static void stepLines(DataStructure next, DataStructure previous, int fromLine, int toLine, Rule rule) {
+		byte[] in = previous.getCellBytes();
+		byte[] out = next.getCellBytes();
+		int w = (int)next.getDataStructureWidth();
+		int lanes = SPECIES.length();
+		boolean isLife = rule.isLife();
+		int[] birthCounts = rule.getBirthCounts();
+		int[] survivalCounts = rule.getSurvivalCounts();
+
+		for (int line = fromLine; line < toLine; line++) {
+			int above = (line - 1) * w;
+			int here = line * w;
+			int below = (line + 1) * w;
+
+			// The cells 1 .. w-2 are computed; a vector of cells r .. r+lanes-1 reads r-1 .. r+lanes
+			int r = 1;
+			for (; r + lanes <= w - 1; r += lanes) {
+				ByteVector sum = ByteVector.fromArray(SPECIES, in, above + r - 1)
+						.add(ByteVector.fromArray(SPECIES, in, above + r))
+						.add(ByteVector.fromArray(SPECIES, in, above + r + 1))
+						.add(ByteVector.fromArray(SPECIES, in, here + r - 1))
+						.add(ByteVector.fromArray(SPECIES, in, here + r + 1))
+						.add(ByteVector.fromArray(SPECIES, in, below + r - 1))
+						.add(ByteVector.fromArray(SPECIES, in, below + r))
+						.add(ByteVector.fromArray(SPECIES, in, below + r + 1));
+				ByteVector cell = ByteVector.fromArray(SPECIES, in, here + r);
+
+				// Alive with 3 neighbours, or with 2 neighbours when it was alive
+				VectorMask<Byte> isAlive;
+				if (isLife) isAlive = sum.eq((byte)3).or(sum.eq((byte)2).and(cell.eq((byte)1)));
+				else {
+					// One comparison for each neighbour count of the rule
+					VectorMask<Byte> wasAlive = cell.eq((byte)1);
+					VectorMask<Byte> isBorn = SPECIES.maskAll(false);
+					VectorMask<Byte> survives = isBorn;
+					for (int n: birthCounts) isBorn = isBorn.or(sum.eq((byte)n));
+					for (int n: survivalCounts) survives = survives.or(sum.eq((byte)n));
+					isAlive = isBorn.andNot(wasAlive).or(survives.and(wasAlive));
+				}
+				DEAD.blend((byte)1, isAlive).intoArray(out, here + r);
+			}
+
+			// The cells that do not fill a whole vector
+			for (; r < w - 1; r++) {
+				int numberAliveCells = in[above + r - 1] + in[above + r] + in[above + r + 1]
+						+ in[here + r - 1] + in[here + r + 1]
+						+ in[below + r - 1] + in[below + r] + in[below + r + 1];
+				out[here + r] = (byte)(rule.isAlive(numberAliveCells, in[here + r] == 1) ? 1 : 0);
+			}
+			next.copyLineFromCellBytes(line);
+		}
+	}
+
+}
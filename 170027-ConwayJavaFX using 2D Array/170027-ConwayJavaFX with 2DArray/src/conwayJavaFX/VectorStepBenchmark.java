@@ -0,0 +1,71 @@
+package conwayJavaFX;
+
+import java.util.Random;
+/***
+ * <b> The VectorStepBenchmark Class: Vector Step Against the Scalar Step </b>
+ * <p> Description: This console program runs the same random 2D Array board with the scalar step and with the
+ * vector (SIMD) step, for several board sizes, and prints the generations per second of both and the speedup.
+ * It also checks that both steps end on exactly the same board.
+ *
+ * <p> Usage: <code>java --add-modules jdk.incubator.vector conwayJavaFX.VectorStepBenchmark [generations]
+ * [size ...]</code>. The defaults are 200 generations on boards of 256, 1024 and 2048 cells square.
+ * @author JSGREWAL
+ */
+
+public class VectorStepBenchmark {
+
+	public static void main(String[] args) {
+		int generations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int[] sizes = {256, 1024, 2048};
+		if (args.length > 1) {
+			sizes = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) sizes[i - 1] = Integer.parseInt(args[i]);
+		}
+		if (!Board.setVectorStep(true)) return;
+
+		System.out.println("Vector step against the scalar step (Using 2D Array), " + generations + " generations");
+		System.out.println("   Size   Scalar (gen/sec)   Vector (gen/sec)   Speedup   Same board");
+		for (int size: sizes) {
+			Board.setVectorStep(false);
+			run(size, 50);											// Warm up the compiler
+			long start = System.nanoTime();
+			Board scalar = run(size, generations);
+			double scalarTime = (System.nanoTime() - start) / 1e9;
+
+			Board.setVectorStep(true);
+			run(size, 50);
+			start = System.nanoTime();
+			Board vector = run(size, generations);
+			double vectorTime = (System.nanoTime() - start) / 1e9;
+
+			System.out.println(String.format("%7d %18.1f %18.1f %9.2f   %s", size, generations / scalarTime,
+					generations / vectorTime, scalarTime / vectorTime, sameCells(scalar, vector) ? "yes" : "NO"));
+		}
+		Board.setVectorStep(false);
+	}
+
+	/***
+	 * Steps a random board (always the same one) for a number of generations and returns the final board
+	 */
+	private static Board run(int size, int generations) {
+		Board odd = new Board(size, size, Engine.ARRAY_2D);
+		Board even = new Board(size, size, Engine.ARRAY_2D);
+		Random random = new Random(170027);
+		for (int x = 1; x < size-1; x++)
+			for (int y = 1; y < size-1; y++)
+				if (random.nextInt(3) == 0) odd.cellIsAlive.writeDataStructure(x, y, true);
+		for (int generation = 0; generation < generations; generation++) {
+			if (generation % 2 == 0) even.step(odd);
+			else odd.step(even);
+		}
+		return generations % 2 == 0 ? odd : even;
+	}
+
+	private static boolean sameCells(Board a, Board b) {
+		for (int x = 0; x < a.cellIsAlive.getDataStructureWidth(); x++)
+			for (int y = 0; y < a.cellIsAlive.getDataStructureHeight(); y++)
+				if (a.cellIsAlive.readDataStructure(x, y) != b.cellIsAlive.readDataStructure(x, y)) return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,27 @@
+package conwayJavaFX;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.runner.RunnerException;
+/***
+ * <b> The BenchmarkMain Class: Runs the Benchmarks With a JSON Result File </b>
+ * <p> Description: Starts the JMH runner, writing the results as JSON to jmh-result-SparseArray.json unless
+ * a result format (-rf) or file (-rff) is given. The other arguments are those of the JMH runner, such as a
+ * benchmark name to run or <code>-p size=256</code> to run a single size.
+ * @author JSGREWAL
+ */
+
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		if (!options.contains("-rf") && !options.contains("-rff")) {
+			options.addAll(0, Arrays.asList("-rf", "json", "-rff", "jmh-result-SparseArray.json"));
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+	}
+
+}
@@ -0,0 +1,76 @@
+package conwayJavaFX;
+
+import java.io.IOException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/***
+ * <b> The PatternBenchmark Class: Loading and Stepping the Test Patterns </b>
+ * <p> Description: Measures the loading of the pattern files test01 .. test05 into a new board, and Board.step
+ * on the loaded pattern. The files are read once per trial, so only the parsing and the writes into the data
+ * structure are measured by load.
+ * @author JSGREWAL
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternBenchmark {
+
+	// test03 is left out: its -10 is rejected by the user interface and cannot be written to a board
+	@Param({"test01", "test02", "test04", "test05"})
+	public String pattern;
+
+	@Param({"256"})
+	public int size;
+
+	private String cells;
+	private Board odd;
+	private Board even;
+	private boolean toggle;
+
+	@Setup(Level.Trial)
+	public void readPattern() throws IOException {
+		cells = BenchmarkSupport.readPattern(pattern);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		odd = new Board(size, size);
+		even = new Board(size, size);
+		BenchmarkSupport.loadPattern(odd.cellIsAlive, cells);
+		toggle = true;
+	}
+
+	@Benchmark
+	public Board load() {
+		return new Board(size, size, new Scanner(cells));
+	}
+
+	@Benchmark
+	public Board step() {
+		toggle = !toggle;
+		if (toggle) {
+			odd.step(even);
+			return odd;
+		}
+		even.step(odd);
+		return even;
+	}
+
+}
@@ -1,10 +1,9 @@
 package conwayJavaFX;
 
+import java.util.Arrays;
 import java.util.Scanner;
 
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import jdk.jfr.EventType;
 
 /*******
  * <p> Title: Board Class. </p>
@@ -18,6 +17,12 @@ import javafx.scene.shape.Rectangle;
  * 
  * @version 2.00	2018-04-27 An implementation baseline for JavaFX graphics
  * @version 2.01	2019-03-10 Implementation of Performance Analysis Routines
+ * @version 2.02	2019-05-05 The step, the canvas and toString read and write whole rows
+ * @version 2.03	2019-07-07 Step times recorded in the histograms of SimulationMetrics
+ * @version 2.04	2019-07-14 A Flight Recorder event for every step
+ * @version 2.05	2019-07-21 The new rows are appended to the sparse array, which is trimmed once per step
+ * @version 2.06	2019-07-28 Life-like rules given by B/S rulestrings
+ * @version 2.07	2019-08-04 No JavaFX in the Board, the canvas is drawn by the user interface
  * 
  * 
  */
@@ -25,10 +30,15 @@ public class Board {
 	
 	
 		
-	// For space-time complexity evaluation
-	static boolean firstStep=true;
+	// The step times, and the render times and populations recorded by the user interface, see getMetrics
+	private static final SimulationMetrics metrics = new SimulationMetrics();
+
+	// The Flight Recorder type of the step events: no event is made while no recording takes them
+	private static final EventType STEP_EVENT_TYPE = EventType.getEventType(StepEvent.class);
+
+	// The rule applied by the step, given by the conway.rule property (B3/S23 by default), see setRule
+	static Rule rule = Rule.selected();
 	final long MEGABYTES = 1024L*1024L;
-	long initiationTime = 0; long endingTime = 0;
 	/**********************************************************************************************
 
 	Class Attributes
@@ -37,6 +47,7 @@ public class Board {
 
 	// These are the major attribute values for this application
 	protected DataStructure cellIsAlive;
+	protected long generation = 0;		// The number of generations since the pattern was loaded
 	
 	
 	/**********************************************************************************************
@@ -96,12 +107,15 @@ public class Board {
 	 */
 	public String toString() {
 		String result = "";								// Insert the right number of zeros so the
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
 		for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {		// element in the board align with
 			if (y<10) result += "[00" + y + "] ";				// one another
 			else if (y<100) result += "[0" + y + "] ";
 			else result += "[" + y + "] ";
-			for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-				if (cellIsAlive.readDataStructure(x, y)) result += "*";	// Display an asterisk if the cell is alive
+			cellIsAlive.readRowSegment(y, 0, width, row);	// Read the whole row at once
+			for (int x = 1; x < width-1; x++)
+				if (bit(row, x) != 0) result += "*";			// Display an asterisk if the cell is alive
 				else result += " ";						// else display a blank
 			result += "\n";								// Append an end of line for the next row
 		}
@@ -115,17 +129,11 @@ public class Board {
 	 **********************************************************************************************/
 
 	/**********
-	 * This method places a number of black squares into a specified window pane, one for each live
-	 * cell on *this* board.
+	 * This method returns bit x of a row bitmap, that is 1 when the cell x of the row is alive and 0
+	 * when it is dead.
 	 */
-	public void populateCanvas(Pane p) {
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++)
-				if (cellIsAlive.readDataStructure(x, y)) {
-					Rectangle rectangle = new Rectangle(5,5,Color.BLACK);
-					rectangle.relocate(6*x, 6*y);
-					p.getChildren().add(rectangle);
-				}
+	static int bit(long[] row, int x) {
+		return (int)(row[x >>> 6] >>> x) & 1;
 	}
 
 	/**********
@@ -137,52 +145,95 @@ public class Board {
 	 * are currently alive.  If the examined cell *was* alive, then it must have at least two but
 	 * no more than three alive neighbors to stay alive.  If the examined cell *was not* alive on
 	 * the previous board, it must have exact three alive neighbors on the previous board for the
-	 * cell to be alive on *this* board.
+	 * cell to be alive on *this* board. Those are the counts of Conway's rule, B3/S23; another
+	 * rule can be set with setRule.
 	 */
 	public void step (Board previous) {
-		
-		 
-		if (firstStep) {
-			initiationTime = System.currentTimeMillis();
-
-		}
+		StepEvent event = STEP_EVENT_TYPE.isEnabled() ? new StepEvent() : null;
+		if (event != null) event.begin();
+		long start = System.nanoTime();
+		generation = previous.generation + 1;
+		Rule rule = Board.rule;
 
 		// Allocate a new copy of this board so all elements are false
 		cellIsAlive = new DataStructure (cellIsAlive.getDataStructureWidth(), cellIsAlive.getDataStructureWidth());
 
-		// Iterate through all of the elements on the previous boards, not on the boundary
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {
+		// Iterate through all of the rows on the previous boards, not on the boundary. Each scan of the
+		// sparse array reads a whole row (the row above, the row itself and the row below) and the new row
+		// is appended to the end of the array, rather than one scan or rebuild for every cell
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		long[] above = new long[(width + 63) >>> 6];
+		long[] row = new long[above.length];
+		long[] below = new long[above.length];
+		long[] next = new long[above.length];
+		for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {
+			previous.cellIsAlive.readRowSegment(y-1, 0, width, above);
+			previous.cellIsAlive.readRowSegment(y, 0, width, row);
+			previous.cellIsAlive.readRowSegment(y+1, 0, width, below);
+			Arrays.fill(next, 0L);
+			for (int x = 1; x < width-1; x++) {
 
 				// Count the number of alive neighbor cells on the previous board
-				int numberAliveCells = 0;
-				if (previous.cellIsAlive.readDataStructure(x-1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y+1)) numberAliveCells++;
-
-				// If the cell was alive, it must have 2 or 3 alive neighbors to remain alive
-				if (previous.cellIsAlive.readDataStructure(x, y)) { 
-					if (numberAliveCells >= 2 && numberAliveCells <= 3)
-						this.cellIsAlive.writeDataStructure(x, y, true);
-					// If the cell was alive, and it does not have exactly 2 or 3 neighbors, it should die
-					else this.cellIsAlive.writeDataStructure(x, y, false);	
-					// if the cell was not alive, it must have exactly 3 alive neighbors to give birth
-				} else if (numberAliveCells == 3)
-					this.cellIsAlive.writeDataStructure(x, y, true);
+				int numberAliveCells = bit(above, x-1) + bit(above, x) + bit(above, x+1)
+						+ bit(row, x-1) + bit(row, x+1)
+						+ bit(below, x-1) + bit(below, x) + bit(below, x+1);
+
+				// The survival counts of the rule keep an alive cell alive (2 or 3 for B3/S23) and the birth
+				// counts give birth to a dead cell (exactly 3 for B3/S23)
+				if (rule.isAlive(numberAliveCells, bit(row, x) != 0)) next[x >>> 6] |= 1L << x;
 			}
-		
-		if (firstStep) {
-			firstStep=false;
+			// The cells that are not set in the row bitmap are dead
+			this.cellIsAlive.writeRowSegment(y, 0, width, next);
 		}
+		cellIsAlive.trimToSize();		// The rows were appended in order, the array is copied once
+
+		metrics.recordStep(start, System.nanoTime());
+		if (event != null) event.end();
+		if (event != null && event.shouldCommit()) {
+			event.generation = generation;
+			event.width = width;
+			event.height = (int)cellIsAlive.getDataStructureHeight();
+			event.population = cellIsAlive.getNumberOfAliveCells();
+			event.cellsVisited = (long)(event.height - 2) * (width - 2);
+			event.dataStructure = structureName();
+			event.commit();
+		}
+	}
 
+	/**********
+	 * This method sets the rule applied by the step of every board, e.g. Rule.parse("B36/S23").
+	 */
+	public static void setRule(Rule newRule) {
+		rule = newRule;
 	}
-	protected static void changeTheBooleanVal() {
-		firstStep=false;
+
+	/**********
+	 * Getter for the rule applied by the step
+	 */
+	public static Rule getRule() {
+		return rule;
+	}
+
+	/**********
+	 * Getter for the number of generations since the pattern was loaded
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**********
+	 * This method returns the name of the data structure, for the performance printouts and the events.
+	 */
+	static String structureName() {
+		return "2D Sparse Integer Array";
+	}
+
+	/**********
+	 * Getter for the metrics of the simulation: the time of every step of every board, and what the user
+	 * interface records
+	 */
+	public static SimulationMetrics getMetrics() {
+		return metrics;
 	}
 	/***
 	 * Getter for Size of Object
@@ -193,13 +244,11 @@ public class Board {
 		return cellIsAlive.getDataStructureSize();
 	}
 	/***
-	 * This routine calculates the time taken for processing 100 generations.
+	 * This routine prints the metrics of the simulation so far
 	 */
 	public void fetchPerformance_Time() {
-		endingTime = System.currentTimeMillis();
-		System.out.println(("Time taken for processing 100 generations (Using 2D Sparse Integer Array): "
-		+(endingTime-initiationTime)+" nanoseconds"));		
-		
+		System.out.println("Performance after " + metrics.getGenerations() + " generations (Using " + structureName() + ", " + rule + ")");
+		System.out.print(metrics.report());
 	}
 
 }
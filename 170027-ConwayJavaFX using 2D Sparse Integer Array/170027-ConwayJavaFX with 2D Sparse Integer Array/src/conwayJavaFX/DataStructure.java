@@ -1,33 +1,69 @@
 package conwayJavaFX;
 
-import java.util.ArrayList;
-
 import java.util.Arrays;
 /***
- * <b> The DataStructure Class: Sparse Array Implementation Using 2D Integer Array </b>
+ * <b> The DataStructure Class: Sparse Array Implementation Using a Sorted Array of Packed Coordinates </b>
  * <p> Description: This data structure is used as base object in the Conway's Game of Life which only saves the
  * cells which are alive. This implementation of saving only alive cells reduces the space used by objects by a very large extent
- * and is a Sparse Matrix Implementation. Each cell will be saved as {row, col} array. 
+ * and is a Sparse Matrix Implementation. Each cell is saved as a single long, the col index in the upper 32 bits
+ * and the row index in the lower 32 bits, and the longs are kept sorted, so a cell is found with a binary search
+ * and the cells that share a col index (a row of the board as it is displayed) are next to one another.
+ *
+ * <p> Writes are not applied one at a time: they are appended to a buffer, which is sorted and merged into the
+ * array in a single pass when it is full or when the array is read. Loading a pattern of n cells therefore costs
+ * O(n log n) instead of a copy of the whole array for every cell. The buffer is dropped after each merge.
+ *
+ * <p> The rows written in increasing order, as the step writes a new generation, are appended to the array,
+ * which grows by half its size when it is full, instead of being copied once per row. trimToSize then gives
+ * the array its exact size, so an alive cell costs 8 bytes.
  * @author JSGREWAL 2019-03-07 Implemented 2D Sparse Integer Array
+ * @author JSGREWAL 2019-05-26 Sorted packed coordinates with merged writes
+ * @author JSGREWAL 2019-06-02 Rows appended in place by the step
  */
 
 public class DataStructure implements MemoryDataStructureInterface {
 
-	private int[][] cellIsAlive; // This integer 2D array will be used to store row-column pairs of alive cells.
+	private static final int MINIMUM_BUFFER = 256;	// The writes buffered before a merge, at least
+
+	private long[] cellIsAlive; // The packed coordinates of the alive cells, in increasing order
+	private int numberOfAlive; // The number of alive cells, at the start of cellIsAlive
+	private long[] pendingCells; // The packed coordinates of the writes not merged yet, in the order of the writes
+	private boolean[] pendingIsAlive; // The state written by each of them
+	private int numberOfPending; // The number of writes not merged yet
 	private long numberOfRows; // The Number of Rows
 	private long numberOfColumns; // The Number of Columns
 	/***
 	 * Constructor of the Sparse Matrix
-	 * @param height initial number of rows 
+	 * @param height initial number of rows
 	 * @param width initial number of columns
 	 */
 	public DataStructure(long height, long width) {
 		numberOfRows = height;
 		numberOfColumns = width;
-		int h = (int)height;
-		int w = (int)width;
-		// For Sparse Matrix Initialization Purpose Only
-		cellIsAlive = new int[h][w];
+		cellIsAlive = new long[0];
+		pendingCells = new long[0];
+		pendingIsAlive = new boolean[0];
+	}
+
+	/***
+	 * Packs a cell into a single long; the order of the longs is the order of the col index, then of the row index
+	 */
+	private static long pack(long row, long col) {
+		return (col << 32) | (row & 0xFFFFFFFFL);
+	}
+
+	/***
+	 * Finds the position of the first alive cell whose packed coordinates are not less than the key
+	 */
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = numberOfAlive;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (cellIsAlive[middle] < key) low = middle + 1;
+			else high = middle;
+		}
+		return low;
 	}
 	//----------------------------------------------------------------------------------------------------------
 	//---------------- The Controller Layer Methods-------------------------------------------------------------
@@ -35,61 +71,176 @@ public class DataStructure implements MemoryDataStructureInterface {
 	 * The readDataStructure routine takes the row and column index of a cell as input
 	 * and tells if the cell is alive or not.
 	 * According to the sparse-matrix implementation, if the cell is *present* in the
-	 * cellIsAlive 2D integer array, then it is alive and if it is *absent* then it is dead.
+	 * cellIsAlive array, then it is alive and if it is *absent* then it is dead. The pending writes are merged
+	 * first, then the cell is searched with a binary search.
 	 * @param row The row index of cell
 	 * @param col The col index of cell
 	 * @return True if Cell is Alive and False if Cell is not alive.
 	 */
 	public boolean readDataStructure(long row, long col) {
-		int r = (int)row;
-		int c = (int)col;
-		int[] theArray = {r,c};
-		for (int[] presentArray: cellIsAlive) if (Arrays.equals(presentArray, theArray)) return true;
-		return false;
+		if (numberOfPending > 0) merge();
+		return Arrays.binarySearch(cellIsAlive, 0, numberOfAlive, pack(row, col)) >= 0;
 	}
 
 	/***
 	 * The writeDataStructure routine takes the row index, column index and boolean value telling if the
-	 * input cell is alive and then inserts it to the cellIsAlive data-structure *if the cell is alive*.
-	 * In case the cell is not alive, then according to the sparse-matrix implementation, it won't be part 
-	 * of this 2D Array.
+	 * input cell is alive and records the write in the buffer of pending writes. The buffer is merged
+	 * into the cellIsAlive array once it holds a quarter as many cells as the array (and at least 256), so
+	 * each write costs a share of a merge instead of a copy of the array.
 	 * @param row Row index of Cell
 	 * @param col Col index of Cell
 	 * @param isAlive True (Alive) or False (Dead)
 	 * */
 	public void writeDataStructure(long row, long col, boolean isAlive) {
-		int r = (int)row;
-		int c = (int)col;
-		int[] theArray = {r,c};
-		boolean alreadyAlive=false;
-
-		//Convert the array to List
-		ArrayList<int[]> theList = new ArrayList<int[]>();
-		for (int i=0; i<cellIsAlive.length;i++) { 
-			theList.add(cellIsAlive[i]);
+		if (numberOfPending == pendingCells.length) {
+			if (numberOfPending >= Math.max(MINIMUM_BUFFER, numberOfAlive >>> 2)) merge();
+			if (numberOfPending == pendingCells.length) {
+				int capacity = Math.max(16, numberOfPending * 2);
+				pendingCells = Arrays.copyOf(pendingCells, capacity);
+				pendingIsAlive = Arrays.copyOf(pendingIsAlive, capacity);
+			}
 		}
-		// Check if the element is already present in the list
-		for (int j=0;j<theList.size();j++) {
-			if (Arrays.equals(theList.get(j),theArray)) {
-				alreadyAlive=true; break;
+		pendingCells[numberOfPending] = pack(row, col);
+		pendingIsAlive[numberOfPending] = isAlive;
+		numberOfPending++;
+	}
+
+	/***
+	 * The merge routine applies the pending writes. They are sorted by their packed coordinates, keeping the
+	 * order of the writes to the same cell so the last one wins, and merged with the cellIsAlive array in a
+	 * single pass into a new array of the exact size. The buffer is then dropped, so it takes no memory while
+	 * no cell is written.
+	 */
+	private void merge() {
+		sortPending(0, numberOfPending, new long[numberOfPending], new boolean[numberOfPending]);
+
+		// Count the cells of the new array, then fill it
+		int size = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			long[] merged = pass == 0 ? null : new long[size];
+			size = 0;
+			int i = 0;
+			int j = 0;
+			while (i < numberOfAlive || j < numberOfPending) {
+				if (j == numberOfPending || (i < numberOfAlive && cellIsAlive[i] < pendingCells[j])) {
+					if (merged != null) merged[size] = cellIsAlive[i];
+					size++;
+					i++;
+					continue;
+				}
+				// The last write to the cell gives its state; an alive cell already in the array is replaced
+				long key = pendingCells[j];
+				while (j + 1 < numberOfPending && pendingCells[j + 1] == key) j++;
+				if (i < numberOfAlive && cellIsAlive[i] == key) i++;
+				if (pendingIsAlive[j]) {
+					if (merged != null) merged[size] = key;
+					size++;
+				}
+				j++;
 			}
+			if (merged != null) cellIsAlive = merged;
 		}
-		// If the input cell is alive, then put it into the array
-		if (isAlive) {
-			if (!alreadyAlive) theList.add(theArray); 
+		numberOfAlive = size;
+		numberOfPending = 0;
+		pendingCells = new long[0];
+		pendingIsAlive = new boolean[0];
+	}
+
+	/***
+	 * Sorts the pending writes from index from up to (not including) to by their packed coordinates with a
+	 * merge sort, which keeps the writes to the same cell in the order they were made
+	 */
+	private void sortPending(int from, int to, long[] cells, boolean[] states) {
+		if (to - from < 2) return;
+		int middle = (from + to) >>> 1;
+		sortPending(from, middle, cells, states);
+		sortPending(middle, to, cells, states);
+		if (pendingCells[middle - 1] <= pendingCells[middle]) return;		// Already in order
+		System.arraycopy(pendingCells, from, cells, from, to - from);
+		System.arraycopy(pendingIsAlive, from, states, from, to - from);
+		for (int k = from, i = from, j = middle; k < to; k++) {
+			if (j == to || (i < middle && cells[i] <= cells[j])) {
+				pendingCells[k] = cells[i];
+				pendingIsAlive[k] = states[i++];
+			} else {
+				pendingCells[k] = cells[j];
+				pendingIsAlive[k] = states[j++];
+			}
 		}
-		// If the input cell is dead, then remove it from the array
-		else {
-			if(alreadyAlive) theList.remove(theArray);
+	}
+
+	/***
+	 * The readRowSegment routine reads a segment of a row of the board into a bitmap (see
+	 * MemoryDataStructureInterface.readRowSegment). The cells of the segment are next to one another in
+	 * the sorted array, so they are found with one binary search and read in order.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		if (numberOfPending > 0) merge();
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		long end = pack(fromRow + numberOfCells, col);
+		for (int k = lowerBound(pack(fromRow, col)); k < numberOfAlive && cellIsAlive[k] < end; k++) {
+			int i = (int)(cellIsAlive[k] - pack(fromRow, col));
+			bitmap[i >>> 6] |= 1L << i;
 		}
+	}
 
-		// Again, convert the list back to array
-		cellIsAlive = new int[theList.size()][2];
-		for (int ndx =0; ndx<theList.size();ndx++) {
-			cellIsAlive[ndx]=theList.get(ndx);
-		} 
+	/***
+	 * The writeRowSegment routine writes a segment of a row of the board from a bitmap (see
+	 * MemoryDataStructureInterface.writeRowSegment). The cells of the segment are next to one another in
+	 * the sorted array. When they come after every alive cell, as when the rows are written in increasing
+	 * order, the alive cells of the bitmap are appended to the array; otherwise the cells of the segment are
+	 * replaced with a single copy of the array.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		if (numberOfPending > 0) merge();
+		int low = lowerBound(pack(fromRow, col));
+		int high = lowerBound(pack(fromRow + numberOfCells, col));
+		int alive = 0;
+		for (int word = 0; word < (numberOfCells + 63) >>> 6; word++)
+			alive += Long.bitCount(segmentWord(bitmap, word, numberOfCells));
+		if (alive == 0 && low == high) return;							// Nothing to change
 
+		long[] merged = cellIsAlive;
+		if (low == numberOfAlive) {
+			// Every alive cell comes before the segment: append, growing the array by half when it is full
+			if (numberOfAlive + alive > cellIsAlive.length)
+				merged = Arrays.copyOf(cellIsAlive,
+						Math.max(numberOfAlive + alive, Math.max(16, cellIsAlive.length + (cellIsAlive.length >>> 1))));
+		} else {
+			merged = new long[numberOfAlive - (high - low) + alive];
+			System.arraycopy(cellIsAlive, 0, merged, 0, low);
+			System.arraycopy(cellIsAlive, high, merged, low + alive, numberOfAlive - high);
+		}
+		int k = low;
+		for (int word = 0; word < (numberOfCells + 63) >>> 6; word++)
+			for (long bits = segmentWord(bitmap, word, numberOfCells); bits != 0; bits &= bits - 1)
+				merged[k++] = pack(fromRow + (word << 6) + Long.numberOfTrailingZeros(bits), col);
+		cellIsAlive = merged;
+		numberOfAlive += alive - (high - low);
+	}
 
+	/***
+	 * Fetches a word of a bitmap without the bits past the end of a segment of numberOfCells cells
+	 */
+	private static long segmentWord(long[] bitmap, int word, int numberOfCells) {
+		int cells = numberOfCells - (word << 6);
+		return cells >= 64 ? bitmap[word] : bitmap[word] & ((1L << cells) - 1);
+	}
+
+	/***
+	 * The trimToSize routine gives the array of alive cells its exact size, once rows have been appended to it
+	 */
+	public void trimToSize() {
+		if (numberOfPending > 0) merge();
+		if (cellIsAlive.length != numberOfAlive) cellIsAlive = Arrays.copyOf(cellIsAlive, numberOfAlive);
 	}
 	//----------------------------------------------------------------------------------------------------------
 
@@ -109,15 +260,22 @@ public class DataStructure implements MemoryDataStructureInterface {
 	}
 
 	/***
-	 * Getter for Size of Data Structure in Bytes
+	 * Getter for Size of Data Structure in Bytes: 8 bytes for every slot of the array of alive cells, once the
+	 * pending writes are merged (and the buffer dropped)
 	 * @return Size in bytes
 	 */
 	public long getDataStructureSize() {
-		long numRows = cellIsAlive.length;
-		long numCols = 2;
-		long numberOfElements = numCols*numRows;
-		long totalSize = numberOfElements * 4;
-		return totalSize;
-	} 
+		if (numberOfPending > 0) merge();
+		return cellIsAlive.length * 8L;
+	}
+
+	/***
+	 * Getter for the number of alive cells in the data-structure, once the pending writes are merged
+	 * @return the number of alive cells
+	 */
+	public int getNumberOfAliveCells() {
+		if (numberOfPending > 0) merge();
+		return numberOfAlive;
+	}
 
 }
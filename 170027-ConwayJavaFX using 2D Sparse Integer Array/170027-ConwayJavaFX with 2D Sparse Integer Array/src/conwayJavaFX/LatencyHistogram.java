@@ -0,0 +1,117 @@
+package conwayJavaFX;
+
+import java.util.Arrays;
+/***
+ * <b> The LatencyHistogram Class: Distribution of Recorded Values </b>
+ * <p> Description: A histogram of non-negative values, such as step times in nanoseconds, laid out like an
+ * HDR histogram: the values below 128 have a bucket each, and every power of two above is cut into 64
+ * buckets, so any value is counted with a relative error under 1.6% whatever its magnitude, in a fixed
+ * array of counts. The values are recorded by a single thread, the one running the simulation, while the
+ * console or any other thread reads the percentiles. Recording a value is a few plain increments published
+ * by one volatile write, so it never takes a lock and never allocates, not even before the JIT has compiled
+ * it; a reader sees each count as it was at some point during its read.
+ * @author JSGREWAL
+ */
+
+public class LatencyHistogram {
+
+	private static final int EXACT_BUCKETS = 128;		// The values with a bucket of their own
+	private static final int SUB_BUCKETS = 64;			// The buckets of each power of two above them
+	private static final int BUCKETS = EXACT_BUCKETS + 57 * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private volatile long totalCount;		// Written last, so a reader that reads it first sees the counts
+	private volatile long totalValue;
+	private volatile long maximum;
+
+	/***
+	 * This routine counts a value; negative values are counted as 0. Only the recording thread calls it.
+	 * @param value The value to record
+	 */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		counts[bucketOf(value)]++;
+		totalValue = totalValue + value;
+		if (value > maximum) maximum = value;
+		totalCount = totalCount + 1;
+	}
+
+	/***
+	 * This routine forgets every value recorded. Only the recording thread calls it.
+	 */
+	public void reset() {
+		totalCount = 0;
+		Arrays.fill(counts, 0L);
+		totalValue = 0;
+		maximum = 0;
+	}
+
+	/***
+	 * Getter for the number of values recorded
+	 * @return the number of values
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/***
+	 * Getter for the largest value recorded, exactly
+	 * @return the largest value, 0 when none was recorded
+	 */
+	public long getMax() {
+		return maximum;
+	}
+
+	/***
+	 * Getter for the mean of the values recorded
+	 * @return the mean, 0 when no value was recorded
+	 */
+	public double getMean() {
+		long count = totalCount;
+		return count == 0 ? 0 : (double)totalValue / count;
+	}
+
+	/***
+	 * This routine finds the value that the given percentage of the values recorded are at or below, as the
+	 * highest value of its bucket (but never more than the largest value recorded)
+	 * @param percentile The percentage, from 0 to 100
+	 * @return The value at the percentile, 0 when no value was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) return 0;						// The volatile read makes the counts visible
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			snapshot[bucket] = counts[bucket];
+			count += snapshot[bucket];
+		}
+		if (count == 0) return 0;
+		long rank = Math.max(1, (long)Math.ceil(Math.min(percentile, 100) / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += snapshot[bucket];
+			if (seen >= rank) return Math.min(highestValueOf(bucket), getMax());
+		}
+		return getMax();
+	}
+
+	/***
+	 * This routine finds the bucket counting a value
+	 */
+	static int bucketOf(long value) {
+		if (value < EXACT_BUCKETS) return (int)value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - 6;		// value >>> shift is from 64 to 127
+		return EXACT_BUCKETS + (shift - 1) * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+	}
+
+	/***
+	 * This routine finds the highest value counted by a bucket
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < EXACT_BUCKETS) return bucket;
+		int shift = (bucket - EXACT_BUCKETS) / SUB_BUCKETS + 1;
+		long lowest = (long)((bucket - EXACT_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
@@ -0,0 +1,40 @@
+package conwayJavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/***
+ * <b> The RenderEvent Class: Flight Recorder Event of the Drawing of a Generation </b>
+ * <p> Description: The user interface commits one of these Java Flight Recorder events each time it fills a
+ * canvas with the squares of a board, using Board.populateCanvas, which is the work of the simulation done inside
+ * the JavaFX pulse besides the step itself.
+ * @author JSGREWAL
+ */
+
+@Name("conwayJavaFX.Render")
+@Label("Canvas Render")
+@Category({"Conway's Game of Life", "User Interface"})
+@Description("The squares of a generation placed on a canvas")
+@StackTrace(false)
+public class RenderEvent extends Event {
+
+	@Label("Generation")
+	long generation;
+
+	@Label("Board Width")
+	int width;
+
+	@Label("Board Height")
+	int height;
+
+	@Label("Population")
+	@Description("The squares drawn, one for each alive cell")
+	long population;
+
+	@Label("Data Structure")
+	String dataStructure;
+
+}
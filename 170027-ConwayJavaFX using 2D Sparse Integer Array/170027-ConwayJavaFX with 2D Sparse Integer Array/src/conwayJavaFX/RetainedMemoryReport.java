@@ -0,0 +1,47 @@
+package conwayJavaFX;
+
+import java.util.Random;
+/***
+ * <b> The RetainedMemoryReport Class: Heap Taken by the 2D Sparse Integer Array per Live Cell </b>
+ * <p> Description: This console program fills the data structure with random cells and measures the heap it
+ * really retains with RetainedHeap, next to the size it reports with getDataStructureSize.
+ *
+ * <p> Usage: <code>java conwayJavaFX.RetainedMemoryReport [size] [density ...]</code>. The defaults are a
+ * 512 x 512 board with 1%, 10% and 50% of its cells alive.
+ * @author JSGREWAL
+ */
+
+public class RetainedMemoryReport {
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+		double[] densities = {0.01, 0.1, 0.5};
+		if (args.length > 1) {
+			densities = new double[args.length - 1];
+			for (int i = 1; i < args.length; i++) densities[i - 1] = Double.parseDouble(args[i]);
+		}
+
+		System.out.println("Retained heap of the 2D Sparse Integer Array, " + size + " x " + size + " board");
+		System.out.println("Density   Live cells   Reported bytes    Retained bytes    Objects   Bytes/live cell");
+		for (double density: densities) {
+			DataStructure cells = new DataStructure(size, size);
+			long liveCells = 0;
+			Random random = new Random(170027);
+			for (int x = 1; x < size-1; x++)
+				for (int y = 1; y < size-1; y++)
+					if (random.nextDouble() < density) {
+						cells.writeDataStructure(x, y, true);
+						liveCells++;
+					}
+
+			// Reporting the size merges the pending writes, so it comes before the measure
+			long reported = cells.getDataStructureSize();
+			RetainedHeap heap = new RetainedHeap();
+			long retained = heap.measure(cells);
+			System.out.println(String.format("%6.1f%% %12d %16d %17d %10d %17s", density * 100, liveCells, reported,
+					retained, heap.getNumberOfObjects(),
+					liveCells == 0 ? "-" : String.format("%.2f", (double)retained / liveCells)));
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package conwayJavaFX;
+/***
+ * <b> The Rule Class: Life-Like Rules Parsed From B/S Rulestrings </b>
+ * <p> Description: A Life-like rule says, for each number of alive neighbours (0 to 8), whether a dead cell is
+ * born and whether an alive cell survives. It is written as a rulestring such as <code>B3/S23</code> (Conway's
+ * Life), <code>B36/S23</code> (HighLife), <code>B3678/S34678</code> (Day &amp; Night) or <code>B2/S</code>
+ * (Seeds); the older survival/birth notation <code>23/3</code> is accepted as well.
+ *
+ * <p> The rulestring is compiled once into two 9-bit masks, bit n of the birth (survival) mask being set when
+ * a dead (alive) cell with n neighbours is alive in the next generation, so applying the rule in a step is a
+ * shift and a test.
+ *
+ * <p> Rules with B0 (birth with no neighbour at all) would fill the whole empty board in a single generation,
+ * which a step visiting only the cells near alive ones cannot do, so they are rejected. The rule used by the
+ * boards is selected with the system property <code>conway.rule</code>.
+ * @author JSGREWAL
+ */
+
+public final class Rule {
+
+	// The name of the system property used to select the rule
+	public static final String RULE_PROPERTY = "conway.rule";
+
+	public static final Rule LIFE = parse("B3/S23");
+
+	private final int birthMask;		// Bit n: a dead cell with n alive neighbours is born
+	private final int survivalMask;		// Bit n: an alive cell with n alive neighbours survives
+
+	private Rule(int birthMask, int survivalMask) {
+		this.birthMask = birthMask;
+		this.survivalMask = survivalMask;
+	}
+
+	/***
+	 * This routine parses a rulestring, either B/S (<code>B36/S23</code>) or S/B (<code>23/36</code>), in
+	 * upper or lower case.
+	 * @param rulestring The rulestring
+	 * @return The rule
+	 * @throws IllegalArgumentException when the rulestring is not valid or has B0
+	 */
+	public static Rule parse(String rulestring) {
+		String text = rulestring.trim().toUpperCase();
+		int slash = text.indexOf('/');
+		if (slash < 0) throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has no /");
+		String first = text.substring(0, slash);
+		String second = text.substring(slash + 1);
+		int birthMask;
+		int survivalMask;
+		if (first.startsWith("B") && second.startsWith("S")) {
+			birthMask = mask(first.substring(1), rulestring);
+			survivalMask = mask(second.substring(1), rulestring);
+		} else if (first.startsWith("S") && second.startsWith("B")) {
+			survivalMask = mask(first.substring(1), rulestring);
+			birthMask = mask(second.substring(1), rulestring);
+		} else {
+			survivalMask = mask(first, rulestring);			// The S/B notation without letters
+			birthMask = mask(second, rulestring);
+		}
+		if ((birthMask & 1) != 0)
+			throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has B0, which is not supported");
+		return new Rule(birthMask, survivalMask);
+	}
+
+	private static int mask(String digits, String rulestring) {
+		int mask = 0;
+		for (char digit: digits.toCharArray()) {
+			if (digit < '0' || digit > '8')
+				throw new IllegalArgumentException("The rulestring \"" + rulestring + "\" has '" + digit
+						+ "', only the neighbour counts 0 to 8 can be used");
+			mask |= 1 << (digit - '0');
+		}
+		return mask;
+	}
+
+	/***
+	 * This routine reads the conway.rule system property and returns the matching rule. An invalid value
+	 * falls back to Conway's Life after reporting the problem on the console.
+	 * @return the selected rule
+	 */
+	public static Rule selected() {
+		String rulestring = System.getProperty(RULE_PROPERTY);
+		if (rulestring == null || rulestring.trim().isEmpty()) return LIFE;
+		try {
+			return parse(rulestring);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage() + ", using B3/S23");
+			return LIFE;
+		}
+	}
+
+	/***
+	 * Tells if a cell is alive in the next generation
+	 * @param numberAliveCells The number of alive neighbours, 0 to 8
+	 * @param isAlive True when the cell is alive in this generation
+	 * @return True when the cell is alive in the next generation
+	 */
+	public boolean isAlive(int numberAliveCells, boolean isAlive) {
+		return ((isAlive ? survivalMask : birthMask) >>> numberAliveCells & 1) != 0;
+	}
+
+	/***
+	 * Getter for the birth mask: bit n is set when a dead cell with n alive neighbours is born
+	 * @return the birth mask
+	 */
+	public int getBirthMask() {
+		return birthMask;
+	}
+
+	/***
+	 * Getter for the survival mask: bit n is set when an alive cell with n alive neighbours survives
+	 * @return the survival mask
+	 */
+	public int getSurvivalMask() {
+		return survivalMask;
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof Rule && ((Rule)other).birthMask == birthMask && ((Rule)other).survivalMask == survivalMask;
+	}
+
+	public int hashCode() {
+		return birthMask << 9 | survivalMask;
+	}
+
+	/***
+	 * Formats the rule as a B/S rulestring
+	 * @return the rulestring, e.g. B3/S23
+	 */
+	public String toString() {
+		String result = "B";
+		for (int n = 0; n <= 8; n++) if ((birthMask & (1 << n)) != 0) result += n;
+		result += "/S";
+		for (int n = 0; n <= 8; n++) if ((survivalMask & (1 << n)) != 0) result += n;
+		return result;
+	}
+
+}
@@ -0,0 +1,66 @@
+package conwayJavaFX;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.Scanner;
+
+import jsgrewal.conwaysapi.MemoryDataStructureInterface;
+/***
+ * <b> The BenchmarkSupport Class: Boards and Patterns Shared by the Benchmarks </b>
+ * <p> Description: The random boards and the pattern files used by the JMH benchmarks of this project. The
+ * pattern files (test01 .. test05) are read from the directory given by the conway.patterns system property,
+ * the working directory by default.
+ * @author JSGREWAL
+ */
+
+final class BenchmarkSupport {
+
+	// The name of the system property giving the directory of the pattern files
+	static final String PATTERNS_PROPERTY = "conway.patterns";
+
+	private BenchmarkSupport() {
+	}
+
+	/***
+	 * Makes alive a share of the cells of a board that are not on the boundary, always the same ones for the same
+	 * size and density
+	 * @param cells The data structure to fill
+	 * @param size The height and width of the board
+	 * @param density The probability for a cell to be alive
+	 */
+	static void fillRandomly(MemoryDataStructureInterface cells, int size, double density) {
+		Random random = new Random(170027);
+		for (int x = 1; x < size-1; x++)
+			for (int y = 1; y < size-1; y++)
+				if (random.nextDouble() < density) cells.writeDataStructure(x, y, true);
+	}
+
+	/***
+	 * Reads a pattern file
+	 * @param name The name of the file, such as test01
+	 * @return The content of the file
+	 */
+	static String readPattern(String name) throws IOException {
+		return new String(Files.readAllBytes(Paths.get(System.getProperty(PATTERNS_PROPERTY, "."), name)));
+	}
+
+	/***
+	 * Parses a pattern and writes its cells, the way the constructor of the Board does, without printing the
+	 * size of the data structure
+	 * @param cells The data structure receiving the pattern
+	 * @param pattern The content of a pattern file
+	 */
+	static void loadPattern(MemoryDataStructureInterface cells, String pattern) {
+		Scanner inputReader = new Scanner(pattern);
+		while (inputReader.hasNextLine()) {
+			Scanner input = new Scanner(inputReader.nextLine());
+			int x = input.nextInt();
+			int y = input.nextInt();
+			cells.writeDataStructure(y, x, true);
+			input.close();
+		}
+	}
+
+}
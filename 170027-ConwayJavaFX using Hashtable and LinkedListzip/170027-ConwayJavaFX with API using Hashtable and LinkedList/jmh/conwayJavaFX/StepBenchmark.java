@@ -0,0 +1,66 @@
+package conwayJavaFX;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/***
+ * <b> The StepBenchmark Class: Board.step on Random Boards </b>
+ * <p> Description: Measures one generation of Board.step, the odd and even boards taking turns as in the user
+ * interface, with each data structure of the API. Each iteration starts again from the same random board.
+ * @author JSGREWAL
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepBenchmark {
+
+	// hashtable is the Hashtable With LinkedList of the API, primitive its primitive sparse array
+	@Param({"hashtable", "primitive"})
+	public String structure;
+
+	@Param({"256", "1024"})
+	public int size;
+
+	@Param({"0.05", "0.5"})
+	public double density;
+
+	private Board odd;
+	private Board even;
+	private boolean toggle;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Board.primitive = "primitive".equals(structure);
+		odd = new Board(size, size);
+		even = new Board(size, size);
+		BenchmarkSupport.fillRandomly(odd.cellIsAlive, size, density);
+		toggle = true;
+	}
+
+	@Benchmark
+	public Board step() {
+		toggle = !toggle;
+		if (toggle) {
+			odd.step(even);
+			return odd;
+		}
+		even.step(odd);
+		return even;
+	}
+
+}
@@ -14,6 +14,8 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.util.Duration;
 import javafx.scene.shape.Rectangle;
+import jdk.jfr.EventType;
+import jsgrewal.conwaysapi.MemoryDataStructureInterface;
 
 /*******
  * <p> Title: UserInterface Class. </p>
@@ -27,6 +29,9 @@ import javafx.scene.shape.Rectangle;
  * 
  * @version 2.03	2018-05-07 An implementation baseline for JavaFX graphics
  * @version 2.04	2019-03-10 Implementation of Helper Routines for Performance Analysis
+ * @version 2.05	2019-07-07 Render times and populations recorded in the metrics, printed every interval
+ * @version 2.06	2019-07-14 Flight Recorder events for the rendering, the loading and the check of a pattern
+ * @version 2.07	2019-08-04 The canvas is drawn here, the Board has no JavaFX dependency
  * 
  */
 public class UserInterface {
@@ -87,6 +92,12 @@ public class UserInterface {
 	private boolean toggle = true;					// A two-state attribute that specifies which
 													// is the previous Board and which is the new
 	private int toggleStep =0;
+
+	// The metrics of the simulation are printed every conway.metrics.interval generations (100 by default, 0 never)
+	private static final int METRICS_INTERVAL = Integer.getInteger("conway.metrics.interval", 100);
+
+	// The Flight Recorder type of the render events: no event is made while no recording takes them
+	private static final EventType RENDER_EVENT_TYPE = EventType.getEventType(RenderEvent.class);
 	/**********************************************************************************************
 
 	Constructors
@@ -265,6 +276,8 @@ public class UserInterface {
 	 * odd Board and sets up the even board for the simulation.
 	 */
 	private void loadImageData() {
+		PatternLoadEvent event = new PatternLoadEvent();
+		event.begin();
 		try {
 			oddGameBoard = new Board(boardSizeWidth, boardSizeHeight, new Scanner(new File(str_FileName)));
 			evenGameBoard = new Board(boardSizeWidth, boardSizeHeight);
@@ -272,7 +285,16 @@ public class UserInterface {
 		catch (FileNotFoundException e)  {
 			// Since we have already done this check, this exception should never happen
 		}
-		oddGameBoard.populateCanvas(oddCanvas);		// Given the odd data, populate the odd canvas
+		int population = populateCanvas(oddGameBoard, oddCanvas);	// Given the odd data, populate the odd canvas
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = str_FileName;
+			event.width = (int)oddGameBoard.cellIsAlive.getDataStructureWidth();
+			event.height = (int)oddGameBoard.cellIsAlive.getDataStructureHeight();
+			event.population = population;
+			event.dataStructure = Board.structureName();
+			event.commit();
+		}
 		window.getChildren().add(oddCanvas);		// Add the odd canvas to the display so the
 													// user can see if this is the right data
 		
@@ -286,6 +308,7 @@ public class UserInterface {
 	private void startConway() {
 		window.getChildren().remove(button_Start);	// Remove the start button
 		window.getChildren().add(button_Stop);		// Add in the stop button
+		Board.getMetrics().reset();
 		
 		// Start the simulation by means of an animation Timeline using a keyframe duration of 
 		// 50 milliseconds
@@ -311,17 +334,13 @@ public class UserInterface {
 		
 		// Use the toggle to flip back and forth between the even and the odd boards
 		if (toggle) {
-			if (toggleStep==100) {
-				evenGameBoard.fetchPerformance_Time();
-			}
 			// When the toggle is true, we use the odd board as the previous board and that data
 			evenGameBoard.step(oddGameBoard);			// sets up the new board (even)
-			Board.changeTheBooleanVal();
 			window.getChildren().remove(oddCanvas);		// Discard the old (oddCanvas) data
 			
 			evenCanvas = new Pane();					// Set up a new empty even canvas
 			
-			evenGameBoard.populateCanvas(evenCanvas);	// Populate the even canvas using the
+			renderGeneration(evenGameBoard, evenCanvas);	// Populate the even canvas using the
 														// data from the even board
 			
 			window.getChildren().add(evenCanvas);		// Add the even canvas to the window so
@@ -332,18 +351,14 @@ public class UserInterface {
 		}	
 		
 		else {
-			if (toggleStep==100) {
-				oddGameBoard.fetchPerformance_Time();
-			}
 			// When the toggle is false, we use the even board as the previous board and that data
-			Board.changeTheBooleanVal();
 			oddGameBoard.step(evenGameBoard);			// sets up the new board (odd)
 			
 			window.getChildren().remove(evenCanvas);	// Discard the old (evenCanvas) data
 			
 			oddCanvas = new Pane();						// Set up a new empty odd canvas
 			
-			oddGameBoard.populateCanvas(oddCanvas);		// Populate the odd canvas using the
+			renderGeneration(oddGameBoard, oddCanvas);	// Populate the odd canvas using the
 														// data from the even board
 			
 			window.getChildren().add(oddCanvas);		// Add the even canvas to the window so
@@ -352,7 +367,53 @@ public class UserInterface {
 			toggle = true;								// set up so next call uses the odd
 		toggleStep++;
 		}												// board as the previous
-	
+
+		if (METRICS_INTERVAL > 0 && toggleStep % METRICS_INTERVAL == 0)
+			(toggle ? oddGameBoard : evenGameBoard).fetchPerformance_Time();
+	}
+
+	/**********
+	 * This method populates the canvas of a new generation, and records in the metrics of the simulation the
+	 * time taken to build the canvas and the population it shows
+	 */
+	private void renderGeneration(Board board, Pane p) {
+		RenderEvent event = RENDER_EVENT_TYPE.isEnabled() ? new RenderEvent() : null;
+		if (event != null) event.begin();
+		long start = System.nanoTime();
+		int population = populateCanvas(board, p);
+		Board.getMetrics().recordRender(System.nanoTime() - start);
+		Board.getMetrics().recordPopulation(population);
+		if (event != null) event.end();
+		if (event != null && event.shouldCommit()) {
+			event.generation = board.getGeneration();
+			event.width = (int)board.cellIsAlive.getDataStructureWidth();
+			event.height = (int)board.cellIsAlive.getDataStructureHeight();
+			event.population = population;
+			event.dataStructure = Board.structureName();
+			event.commit();
+		}
+	}
+
+	/**********
+	 * This method places a number of black squares into a specified window pane, one for each live
+	 * cell of a board, and returns how many. The board is read a whole row at a time.
+	 */
+	private int populateCanvas(Board board, Pane p) {
+		MemoryDataStructureInterface cells = board.cellIsAlive;
+		int width = (int)cells.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
+		int squares = 0;
+		for (int y = 1; y < cells.getDataStructureHeight()-1; y++) {
+			cells.readRowSegment(y, 0, width, row);
+			for (int x = 1; x < width-1; x++)
+				if (Board.isSet(row, x)) {
+					Rectangle rectangle = new Rectangle(5,5,Color.BLACK);
+					rectangle.relocate(6*x, 6*y);
+					p.getChildren().add(rectangle);
+					squares++;
+				}
+		}
+		return squares;
 	}
 	
 
@@ -366,6 +427,25 @@ public class UserInterface {
 	 * 						details about what is wrong with the input data so the user can fix it
 	 */
 	private boolean fileContentsAreValid() {
+		PatternValidationEvent event = new PatternValidationEvent();
+		event.begin();
+		boolean valid = readFileContents();
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileName = str_FileName;
+			event.width = boardSizeWidth;
+			event.height = boardSizeHeight;
+			event.valid = valid;
+			event.error = errorMessage_FileContents;
+			event.commit();
+		}
+		return valid;
+	}
+
+	/**********
+	 * This method does the reading for fileContentsAreValid, returning at the first line that is not valid
+	 */
+	private boolean readFileContents() {
 		
 		// Declare and initialize data variables used to control the method
 		int firstValue = -1;
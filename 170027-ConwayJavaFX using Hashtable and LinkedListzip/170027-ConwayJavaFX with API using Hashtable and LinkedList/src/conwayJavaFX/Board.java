@@ -2,10 +2,10 @@ package conwayJavaFX;
 
 import java.util.Scanner;
 
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import jdk.jfr.EventType;
 import jsgrewal.conwaysapi.DataStructure;
+import jsgrewal.conwaysapi.MemoryDataStructureInterface;
+import jsgrewal.conwaysapi.PrimitiveDataStructure;
 
 /*******
  * <p> Title: Board Class. </p>
@@ -19,6 +19,13 @@ import jsgrewal.conwaysapi.DataStructure;
  * 
  * @version 2.00	2018-04-27 An implementation baseline for JavaFX graphics
  * @version 2.01	2019-03-10 Implementation of Performance Analysis Routines
+ * @version 2.02	2019-03-24 Live-cell driven step
+ * @version 2.03	2019-05-05 The canvas and toString read whole rows
+ * @version 2.04	2019-05-19 The primitive sparse array of the API can replace the Hashtable
+ * @version 2.05	2019-07-07 Step times recorded in the histograms of SimulationMetrics
+ * @version 2.06	2019-07-14 A Flight Recorder event for every step
+ * @version 2.07	2019-07-28 Life-like rules given by B/S rulestrings
+ * @version 2.08	2019-08-04 No JavaFX in the Board, the canvas is drawn by the user interface
  * 
  * 
  */
@@ -26,10 +33,19 @@ public class Board {
 	
 	
 		
-	// For space-time complexity evaluation
-	static boolean firstStep=true;
+	// The step times, and the render times and populations recorded by the user interface, see getMetrics
+	private static final SimulationMetrics metrics = new SimulationMetrics();
+
+	// The Flight Recorder type of the step events: no event is made while no recording takes them
+	private static final EventType STEP_EVENT_TYPE = EventType.getEventType(StepEvent.class);
+
+	// The rule applied by the step, given by the conway.rule property (B3/S23 by default), see setRule
+	static Rule rule = Rule.selected();
+
+	// Use the primitive sparse array of the API instead of the Hashtable With LinkedList when the
+	// conway.api.structure property is set to primitive
+	static boolean primitive = "primitive".equalsIgnoreCase(System.getProperty("conway.api.structure", "").trim());
 	final long MEGABYTES = 1024L*1024L;
-	long initiationTime = 0; long endingTime = 0;
 	/**********************************************************************************************
 
 	Class Attributes
@@ -37,7 +53,8 @@ public class Board {
 	 **********************************************************************************************/
 
 	// These are the major attribute values for this application
-	protected DataStructure cellIsAlive;
+	protected MemoryDataStructureInterface cellIsAlive;
+	protected long generation = 0;		// The number of generations since the pattern was loaded
 	
 	
 	/**********************************************************************************************
@@ -50,7 +67,7 @@ public class Board {
 	 * This is the default constructor.  We do not expect it to be used.
 	 */
 	public Board () {
-		cellIsAlive = new DataStructure(3, 3);				// Initialized to false by default;
+		cellIsAlive = newDataStructure(3, 3);				// Initialized to false by default;
 	}
 
 	/**********
@@ -58,7 +75,7 @@ public class Board {
 	 * instances of a board for the purposes of animation.
 	 */
 	public Board (int height, int width) {
-		cellIsAlive = new DataStructure(height, width);		// Initialized to false by default;
+		cellIsAlive = newDataStructure(height, width);		// Initialized to false by default;
 	}
 
 	/**********
@@ -68,7 +85,7 @@ public class Board {
 	 * dealt with by that code.
 	 */
 	public Board (int height, int width, Scanner inputReader) {
-		cellIsAlive = new DataStructure(height, width);		// Initialized to false by default;
+		cellIsAlive = newDataStructure(height, width);		// Initialized to false by default;
 
 		// The input is a sequence of lines, two integer values per line. Each pair is the x
 		// and the y coordinate where a living cell should be placed.
@@ -81,7 +98,23 @@ public class Board {
 			input.close();								// Close the Scanner
 		}
 		//After writing the data, calculate object size.
-		System.out.println("The size of (Hashtable With LinkedList) object is "+fetchObjectSize()+" bytes");
+		System.out.println("The size of (" + structureName() + ") object is "+fetchObjectSize()+" bytes");
+	}
+
+	/**********
+	 * This method creates the data structure selected by the conway.api.structure property, with every
+	 * cell dead.
+	 */
+	private static MemoryDataStructureInterface newDataStructure(long height, long width) {
+		if (primitive) return new PrimitiveDataStructure(height, width);
+		return new DataStructure(height, width);
+	}
+
+	/**********
+	 * This method returns the name of the selected data structure, for the performance printouts and the events.
+	 */
+	static String structureName() {
+		return primitive ? "Primitive Sparse Array" : "Hashtable With LinkedList";
 	}
 
 	/**********************************************************************************************
@@ -95,12 +128,15 @@ public class Board {
 	 */
 	public String toString() {
 		String result = "";								// Insert the right number of zeros so the
+		int width = (int)cellIsAlive.getDataStructureWidth();
+		long[] row = new long[(width + 63) >>> 6];
 		for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {		// element in the board align with
 			if (y<10) result += "[00" + y + "] ";				// one another
 			else if (y<100) result += "[0" + y + "] ";
 			else result += "[" + y + "] ";
-			for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-				if (cellIsAlive.readDataStructure(x, y)) result += "*";	// Display an asterisk if the cell is alive
+			cellIsAlive.readRowSegment(y, 0, width, row);	// Read the whole row at once
+			for (int x = 1; x < width-1; x++)
+				if (isSet(row, x)) result += "*";			// Display an asterisk if the cell is alive
 				else result += " ";						// else display a blank
 			result += "\n";								// Append an end of line for the next row
 		}
@@ -114,81 +150,97 @@ public class Board {
 	 **********************************************************************************************/
 
 	/**********
-	 * This method places a number of black squares into a specified window pane, one for each live
-	 * cell on *this* board.
+	 * This method tells if bit x of a row bitmap is set, that is if the cell x of the row is alive.
 	 */
-	public void populateCanvas(Pane p) {
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++)
-				if (cellIsAlive.readDataStructure(x, y)) {
-					Rectangle rectangle = new Rectangle(5,5,Color.BLACK);
-					rectangle.relocate(6*x, 6*y);
-					p.getChildren().add(rectangle);
-				}
+	static boolean isSet(long[] row, int x) {
+		return (row[x >>> 6] & (1L << x)) != 0;
 	}
 
 	/**********
 	 * This method determines which cells are alive for *this* board based on which cells were 
 	 * alive on the previous board.
 	 * 
-	 * The method creates a new board (each element defaults to false) and then examines each cell
-	 * in the previous board that is not on the boundary to see how many of the 8 potential cells 
-	 * are currently alive.  If the examined cell *was* alive, then it must have at least two but
-	 * no more than three alive neighbors to stay alive.  If the examined cell *was not* alive on
-	 * the previous board, it must have exact three alive neighbors on the previous board for the
-	 * cell to be alive on *this* board.
+	 * The method creates a new board (each element defaults to false) and lets the data structure
+	 * compute the new generation from the alive cells of the previous board only.  Each alive cell
+	 * adds one to the count of its 8 neighbors, so the cost grows with the population instead of
+	 * with the area of the board.  A counted cell that is not on the boundary is alive on *this*
+	 * board when it has exactly three alive neighbors, or two and it *was* alive.  Those are the
+	 * counts of Conway's rule, B3/S23; another rule can be set with setRule.
 	 */
 	public void step (Board previous) {
-		
-		 
-		if (firstStep) {
-			initiationTime = System.currentTimeMillis();
-
-		}
+		StepEvent event = STEP_EVENT_TYPE.isEnabled() ? new StepEvent() : null;
+		if (event != null) event.begin();
+		long start = System.nanoTime();
+		generation = previous.generation + 1;
 
 		// Allocate a new copy of this board so all elements are false
-		cellIsAlive = new DataStructure (cellIsAlive.getDataStructureWidth(), cellIsAlive.getDataStructureWidth());
-
-		// Iterate through all of the elements on the previous boards, not on the boundary
-		for (int x = 1; x < cellIsAlive.getDataStructureWidth()-1; x++)
-			for (int y = 1; y < cellIsAlive.getDataStructureHeight()-1; y++) {
-
-				// Count the number of alive neighbor cells on the previous board
-				int numberAliveCells = 0;
-				if (previous.cellIsAlive.readDataStructure(x-1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x-1, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x, y+1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y-1)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y)) numberAliveCells++;
-				if (previous.cellIsAlive.readDataStructure(x+1, y+1)) numberAliveCells++;
-
-				// If the cell was alive, it must have 2 or 3 alive neighbors to remain alive
-				if (previous.cellIsAlive.readDataStructure(x, y)) { 
-					if (numberAliveCells >= 2 && numberAliveCells <= 3)
-						this.cellIsAlive.writeDataStructure(x, y, true);
-					// If the cell was alive, and it does not have exactly 2 or 3 neighbors, it should die
-					else this.cellIsAlive.writeDataStructure(x, y, false);	
-					// if the cell was not alive, it must have exactly 3 alive neighbors to give birth
-				} else if (numberAliveCells == 3)
-					this.cellIsAlive.writeDataStructure(x, y, true);
-			}
-		
-		if (firstStep) {
-			firstStep=false;
+		cellIsAlive = newDataStructure (cellIsAlive.getDataStructureWidth(), cellIsAlive.getDataStructureWidth());
+
+		// Count the neighbors of the alive cells on the previous board and apply the rule
+		Rule rule = Board.rule;
+		if (cellIsAlive instanceof PrimitiveDataStructure && previous.cellIsAlive instanceof PrimitiveDataStructure)
+			((PrimitiveDataStructure)cellIsAlive).nextGeneration((PrimitiveDataStructure)previous.cellIsAlive,
+					rule.getBirthMask(), rule.getSurvivalMask());
+		else ((DataStructure)cellIsAlive).nextGeneration((DataStructure)previous.cellIsAlive, rule.getBirthMask(),
+				rule.getSurvivalMask());
+
+		metrics.recordStep(start, System.nanoTime());
+		if (event != null) event.end();
+		if (event != null && event.shouldCommit()) {
+			event.generation = generation;
+			event.width = (int)cellIsAlive.getDataStructureWidth();
+			event.height = (int)cellIsAlive.getDataStructureHeight();
+			event.population = numberOfAliveCells(cellIsAlive);
+			event.cellsVisited = 8L * numberOfAliveCells(previous.cellIsAlive);
+			event.dataStructure = structureName();
+			event.commit();
 		}
+	}
+
+	/**********
+	 * This method returns the number of alive cells that either data structure of the API keeps, found from
+	 * its rows without reading the cells
+	 */
+	private static int numberOfAliveCells(MemoryDataStructureInterface cells) {
+		if (cells instanceof PrimitiveDataStructure) return ((PrimitiveDataStructure)cells).getNumberOfAliveCells();
+		return ((DataStructure)cells).getNumberOfAliveCells();
+	}
+
+	/**********
+	 * This method sets the rule applied by the step of every board, e.g. Rule.parse("B36/S23").
+	 */
+	public static void setRule(Rule newRule) {
+		rule = newRule;
+	}
+
+	/**********
+	 * Getter for the rule applied by the step
+	 */
+	public static Rule getRule() {
+		return rule;
+	}
 
+	/**********
+	 * Getter for the number of generations since the pattern was loaded
+	 */
+	public long getGeneration() {
+		return generation;
 	}
-	protected static void changeTheBooleanVal() {
-		firstStep=false;
+
+	/**********
+	 * Getter for the metrics of the simulation: the time of every step of every board, and what the user
+	 * interface records
+	 */
+	public static SimulationMetrics getMetrics() {
+		return metrics;
 	}
 
+	/***
+	 *  This routine prints the metrics of the simulation so far
+	 */
 	public void fetchPerformance_Time() {
-		endingTime = System.currentTimeMillis();
-		System.out.println(("Time taken for processing 100 generations (Using Hashtables with LinkedList): "
-		+(endingTime-initiationTime)+" nanoseconds"));		
-		
+		System.out.println("Performance after " + metrics.getGenerations() + " generations (Using " + structureName() + ", " + rule + ")");
+		System.out.print(metrics.report());
 	}
 	/***
 	 * Getter for Size of Object
@@ -0,0 +1,38 @@
+package conwayJavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/***
+ * <b> The PatternLoadEvent Class: Flight Recorder Event of the Loading of a Pattern </b>
+ * <p> Description: The user interface commits this Java Flight Recorder event when the Load button has built
+ * the boards from the pattern file and drawn the first canvas.
+ * @author JSGREWAL
+ */
+
+@Name("conwayJavaFX.PatternLoad")
+@Label("Pattern Load")
+@Category({"Conway's Game of Life", "User Interface"})
+@Description("The boards built from a pattern file and the first canvas drawn")
+@StackTrace(false)
+public class PatternLoadEvent extends Event {
+
+	@Label("File Name")
+	String fileName;
+
+	@Label("Board Width")
+	int width;
+
+	@Label("Board Height")
+	int height;
+
+	@Label("Population")
+	long population;
+
+	@Label("Data Structure")
+	String dataStructure;
+
+}
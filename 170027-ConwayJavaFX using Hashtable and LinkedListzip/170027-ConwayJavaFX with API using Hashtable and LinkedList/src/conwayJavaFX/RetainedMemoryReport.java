@@ -0,0 +1,72 @@
+package conwayJavaFX;
+
+import java.util.Random;
+
+import jsgrewal.conwaysapi.DataStructure;
+import jsgrewal.conwaysapi.MemoryDataStructureInterface;
+import jsgrewal.conwaysapi.PrimitiveDataStructure;
+import jsgrewal.conwaysapi.RetainedHeap;
+/***
+ * <b> The RetainedMemoryReport Class: Heap Taken by the Data Structures of the API per Live Cell </b>
+ * <p> Description: This console program fills the Hashtable With LinkedList and the primitive sparse array of
+ * the API with the same random cells and measures the heap they really retain with RetainedHeap, next to the
+ * size they report with getDataStructureSize.
+ *
+ * <p> Usage: <code>java --add-opens java.base/java.util=ALL-UNNAMED conwayJavaFX.RetainedMemoryReport [size]
+ * [density ...]</code>. The defaults are a 512 x 512 board with 1%, 10% and 50% of its cells alive. The
+ * Hashtable and its lists are in java.util: without the option their fields cannot be followed and the
+ * measure of the Hashtable is a lower bound.
+ * @author JSGREWAL
+ */
+
+public class RetainedMemoryReport {
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+		double[] densities = {0.01, 0.1, 0.5};
+		if (args.length > 1) {
+			densities = new double[args.length - 1];
+			for (int i = 1; i < args.length; i++) densities[i - 1] = Double.parseDouble(args[i]);
+		}
+
+		boolean lowerBounds = false;
+		for (double density: densities) {
+			System.out.println(String.format("Retained heap, %d x %d board, %.1f%% of the cells alive", size, size,
+					density * 100));
+			System.out.println("Data structure                  Live cells   Reported bytes    Retained bytes    Objects"
+					+ "   Bytes/live cell");
+			for (boolean primitive: new boolean[] {false, true}) {
+				MemoryDataStructureInterface empty = newDataStructure(primitive, size);
+				MemoryDataStructureInterface cells = newDataStructure(primitive, size);
+				long liveCells = 0;
+				Random random = new Random(170027);
+				for (int x = 1; x < size-1; x++)
+					for (int y = 1; y < size-1; y++)
+						if (random.nextDouble() < density) {
+							cells.writeDataStructure(x, y, true);
+							liveCells++;
+						}
+
+				RetainedHeap heap = new RetainedHeap();
+				heap.exclude(empty);
+				long retained = heap.measure(cells);
+				boolean closed = heap.getNumberOfClosedObjects() > 0;
+				lowerBounds |= closed;
+				System.out.println(String.format("%-30s %12d %16d %16d%s %10d %17s",
+						primitive ? "Primitive Sparse Array" : "Hashtable With LinkedList", liveCells,
+						cells.getDataStructureSize(), retained, closed ? "*" : " ", heap.getNumberOfObjects(),
+						liveCells == 0 ? "-" : String.format("%.2f", (double)retained / liveCells)));
+			}
+			System.out.println();
+		}
+		if (lowerBounds)
+			System.out.println("* lower bound: the fields of some objects could not be followed, run with "
+					+ "--add-opens java.base/java.util=ALL-UNNAMED");
+	}
+
+	private static MemoryDataStructureInterface newDataStructure(boolean primitive, int size) {
+		if (primitive) return new PrimitiveDataStructure(size, size);
+		return new DataStructure(size, size);
+	}
+
+}
@@ -0,0 +1,143 @@
+package conwayJavaFX;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/***
+ * <b> The SimulationMetrics Class: Registry of the Measures of a Simulation </b>
+ * <p> Description: This registry holds LatencyHistograms by name. The Board records the time of every step
+ * in nanoseconds, and the user interface the time taken to draw each generation and its population; other
+ * histograms can be added with histogram. It also keeps the times at which the last generations ended, to
+ * give the generations per second over the whole run and over the last ones. The thread running the
+ * simulation records the measures, without taking a lock or allocating anything, and any other thread can
+ * read them, or print them with report, while the simulation runs.
+ * @author JSGREWAL
+ */
+
+public class SimulationMetrics {
+
+	// The names of the histograms recorded by the Board and the user interface
+	public static final String STEP_NANOS = "step.nanos";
+	public static final String RENDER_NANOS = "render.nanos";
+	public static final String POPULATION = "population";
+
+	private static final int RECENT_GENERATIONS = 128;		// The generations the recent rate is taken over
+
+	private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+	private final LatencyHistogram stepNanos = histogram(STEP_NANOS);
+	private final LatencyHistogram renderNanos = histogram(RENDER_NANOS);
+	private final LatencyHistogram population = histogram(POPULATION);
+
+	// The end of each of the last generations, in a ring indexed by the number of generations
+	private final long[] generationEnds = new long[RECENT_GENERATIONS];
+	private volatile long generations;		// Written last, so a reader that sees a generation sees its end
+	private volatile long firstStepStart = 0;
+
+	/***
+	 * This routine finds the histogram of a name, adding an empty one the first time the name is used
+	 * @param name The name of the histogram
+	 * @return The histogram
+	 */
+	public LatencyHistogram histogram(String name) {
+		return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+	}
+
+	/***
+	 * This routine records a step that started and ended at the given times of System.nanoTime
+	 * @param start The time at which the step started
+	 * @param end The time at which the step ended
+	 */
+	public void recordStep(long start, long end) {
+		stepNanos.record(end - start);
+		long generation = generations;
+		if (generation == 0) firstStepStart = start;
+		generationEnds[(int)(generation % RECENT_GENERATIONS)] = end;
+		generations = generation + 1;
+	}
+
+	/***
+	 * This routine records the time taken to draw a generation, in nanoseconds
+	 * @param nanos The time
+	 */
+	public void recordRender(long nanos) {
+		renderNanos.record(nanos);
+	}
+
+	/***
+	 * This routine records the number of alive cells of a generation
+	 * @param alive The population
+	 */
+	public void recordPopulation(long alive) {
+		population.record(alive);
+	}
+
+	/***
+	 * This routine forgets everything recorded, for a new simulation. Only the recording thread calls it.
+	 */
+	public void reset() {
+		for (LatencyHistogram histogram: histograms.values()) histogram.reset();
+		generations = 0;
+		firstStepStart = 0;
+	}
+
+	/***
+	 * Getter for the number of generations stepped
+	 * @return the number of steps recorded
+	 */
+	public long getGenerations() {
+		return generations;
+	}
+
+	/***
+	 * Getter for the generations per second sustained since the first step, including the time spent
+	 * between the steps
+	 * @return the rate, 0 before the first step
+	 */
+	public double getGenerationsPerSecond() {
+		long count = generations;
+		if (count == 0) return 0;
+		long elapsed = generationEnds[(int)((count - 1) % RECENT_GENERATIONS)] - firstStepStart;
+		return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+	}
+
+	/***
+	 * Getter for the generations per second over the last generations (up to 128)
+	 * @return the recent rate, 0 before the second step
+	 */
+	public double getRecentGenerationsPerSecond() {
+		long count = generations;
+		if (count < 2) return 0;
+		long span = Math.min(count, RECENT_GENERATIONS) - 1;
+		long last = generationEnds[(int)((count - 1) % RECENT_GENERATIONS)];
+		long first = generationEnds[(int)((count - 1 - span) % RECENT_GENERATIONS)];
+		return last <= first ? 0 : span * 1e9 / (last - first);
+	}
+
+	/***
+	 * This routine describes the measures recorded so far
+	 * @return The step and render latencies (p50, p99, max), the population and the generations per second
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Generations: %d, %.1f/sec sustained, %.1f/sec over the last %d%n", getGenerations(),
+				getGenerationsPerSecond(), getRecentGenerationsPerSecond(), Math.min(getGenerations(), RECENT_GENERATIONS)));
+		report.append("Step time:   ").append(describeNanos(stepNanos)).append(System.lineSeparator());
+		if (renderNanos.getTotalCount() > 0)
+			report.append("Render time: ").append(describeNanos(renderNanos)).append(System.lineSeparator());
+		if (population.getTotalCount() > 0)
+			report.append(String.format("Population:  p50 %d, p99 %d, max %d%n", population.getValueAtPercentile(50),
+					population.getValueAtPercentile(99), population.getMax()));
+		for (Map.Entry<String, LatencyHistogram> entry: histograms.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			if (histogram == stepNanos || histogram == renderNanos || histogram == population) continue;
+			report.append(String.format("%s: p50 %d, p99 %d, max %d%n", entry.getKey(),
+					histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMax()));
+		}
+		return report.toString();
+	}
+
+	private static String describeNanos(LatencyHistogram histogram) {
+		return String.format("p50 %.3f ms, p99 %.3f ms, max %.3f ms, mean %.3f ms", histogram.getValueAtPercentile(50) / 1e6,
+				histogram.getValueAtPercentile(99) / 1e6, histogram.getMax() / 1e6, histogram.getMean() / 1e6);
+	}
+
+}
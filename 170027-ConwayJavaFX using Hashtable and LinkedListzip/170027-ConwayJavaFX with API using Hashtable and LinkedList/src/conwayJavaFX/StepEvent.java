@@ -0,0 +1,45 @@
+package conwayJavaFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/***
+ * <b> The StepEvent Class: Flight Recorder Event of a Board Step </b>
+ * <p> Description: Board.step commits one of these Java Flight Recorder events for every generation it computes,
+ * so a recording shows the time of the simulation apart from the drawing of the canvas. The fields are only set
+ * when the recording takes the event, and the event has no stack trace; with no recording running, beginning and
+ * ending an event costs next to nothing.
+ * @author JSGREWAL
+ */
+
+@Name("conwayJavaFX.Step")
+@Label("Board Step")
+@Category({"Conway's Game of Life", "Simulation"})
+@Description("The computation of a generation by Board.step")
+@StackTrace(false)
+public class StepEvent extends Event {
+
+	@Label("Generation")
+	@Description("The generation computed, counted from the loaded pattern")
+	long generation;
+
+	@Label("Board Width")
+	int width;
+
+	@Label("Board Height")
+	int height;
+
+	@Label("Population")
+	long population;
+
+	@Label("Cells Visited")
+	@Description("The neighbour counts incremented by the step, 8 for each alive cell of the previous generation")
+	long cellsVisited;
+
+	@Label("Data Structure")
+	String dataStructure;
+
+}
@@ -0,0 +1,113 @@
+package jsgrewal.conwaysapi;
+
+import java.util.Arrays;
+/***
+ * <b> The CellCountMap Class: Primitive Keyed Neighbour Count Map </b>
+ * <p> Description: An open-addressing hash map from a cell, packed into a long as (row, col), to the number of
+ * alive neighbours it has. The keys and the counts are kept in primitive arrays with linear probing, so counting
+ * the neighbours of every alive cell neither boxes a value nor allocates an entry object.
+ *
+ * @author JSGREWAL
+ */
+
+class CellCountMap {
+
+	private static final long EMPTY = Long.MIN_VALUE;	// Marks an unused slot; no packed cell has this value
+
+	private long[] keys;
+	private int[] counts;
+	private int size;
+
+	/***
+	 * Constructs a map sized for the given number of cells without growing
+	 * @param expectedCells the number of distinct cells expected
+	 */
+	CellCountMap(int expectedCells) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedCells * 2 - 1)) << 1;
+		keys = new long[capacity];
+		counts = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/***
+	 * Packs a row and a column into a single key
+	 */
+	static long pack(int row, int col) {
+		return ((long)row << 32) | (col & 0xFFFFFFFFL);
+	}
+
+	static int rowOf(long key) {
+		return (int)(key >> 32);
+	}
+
+	static int colOf(long key) {
+		return (int)key;
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & mask;
+	}
+
+	/***
+	 * Adds one to the count of a cell
+	 */
+	void increment(long key) {
+		add(key, 1);
+	}
+
+	/***
+	 * Adds an amount to the count of a cell, counted from 0 when the cell is not in the map yet. Adding 0 puts
+	 * the cell in the map without changing its count.
+	 */
+	void add(long key, int amount) {
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				counts[i] += amount;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		counts[i] = amount;
+		if (++size > keys.length >>> 1) grow();
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		int mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++)
+			if (oldKeys[j] != EMPTY) {
+				int i = slot(oldKeys[j], mask);
+				while (keys[i] != EMPTY) i = (i + 1) & mask;
+				keys[i] = oldKeys[j];
+				counts[i] = oldCounts[j];
+			}
+	}
+
+	/***
+	 * Getter for the number of slots; slot i holds a cell when keyAt(i) is not empty
+	 */
+	int capacity() {
+		return keys.length;
+	}
+
+	boolean isUsed(int slot) {
+		return keys[slot] != EMPTY;
+	}
+
+	long keyAt(int slot) {
+		return keys[slot];
+	}
+
+	int countAt(int slot) {
+		return counts[slot];
+	}
+
+}
@@ -1,5 +1,6 @@
 package jsgrewal.conwaysapi;
 
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.Set;
@@ -16,6 +17,10 @@ import java.util.Set;
 
 public class DataStructure implements MemoryDataStructureInterface {
 
+	// The rule of Conway's Life, B3/S23, as masks: bit n is set when n alive neighbours give birth (survival)
+	public static final int LIFE_BIRTH_MASK = 1 << 3;
+	public static final int LIFE_SURVIVAL_MASK = 1 << 2 | 1 << 3;
+
 	// --------------------------------------------------------------------------------------------------------
 	// The Hash-Table Data Structure which is going to save the location of
 	// alive cells in the board. 
@@ -25,6 +30,15 @@ public class DataStructure implements MemoryDataStructureInterface {
 	private long numberOfRows; // Number of Rows in Hash-Table
 	private long numberOfColumns; // Number of Columns in Hash-Table
 	//----------------------------------------------------------------------------------------------------------
+	// The bytes taken by the objects of the Hash-Table on a 64-bit JVM with compressed references
+	private static final long HASHTABLE_BYTES = 48;		// The Hashtable itself
+	private static final long ENTRY_BYTES = 32;			// An entry of the Hashtable, one per row
+	private static final long LIST_BYTES = 32;			// A LinkedList, one per row
+	private static final long NODE_BYTES = 24;			// A node of a LinkedList, one per alive cell
+	private static final long INTEGER_BYTES = 16;		// An Integer row key or column
+	private static final long ARRAY_HEADER_BYTES = 16;	// The header of the table of buckets
+	private static final long REFERENCE_BYTES = 4;		// A bucket of the table
+	//----------------------------------------------------------------------------------------------------------
 
 	/***
 	 * The basic constructor of the Data-Structure Object takes the height (number of rows) and width (number of cols)
@@ -99,11 +113,10 @@ public class DataStructure implements MemoryDataStructureInterface {
 				LinkedList <Integer>theListAssociatedWithThisRow = cellIsAlive.get(r); // Fetch all the columns related to that row
 
 				if (theListAssociatedWithThisRow.contains(c)) { // If the input column is present in the list 
-					theListAssociatedWithThisRow.remove(c);  // then remove it from the list
+					theListAssociatedWithThisRow.remove(Integer.valueOf(c));  // then remove it (the column, not the index) from the list
 					if (theListAssociatedWithThisRow.isEmpty() ) { // In case the list is now empty
 						cellIsAlive.remove(r); // Remove it from the data-structure
 					}
-					cellIsAlive.put(r, theListAssociatedWithThisRow); // and assign the updated list to the data-structure
 
 				} 
 				else // The cell is already absent in the structure so
@@ -112,6 +125,58 @@ public class DataStructure implements MemoryDataStructureInterface {
 		}
 
 	}
+
+	/***
+	 * The readRowSegment routine reads a segment of a row of the board into a bitmap (see
+	 * MemoryDataStructureInterface.readRowSegment). Every cell of the segment has its own key in the hash-table,
+	 * so either the keys of the segment are looked up, or, when the hash-table holds fewer keys than the
+	 * segment has cells, the keys present are visited.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		Integer c = (int)col;
+		if (cellIsAlive.size() < numberOfCells) {
+			for (Integer r: cellIsAlive.keySet()) {
+				long i = r - fromRow;
+				if (i >= 0 && i < numberOfCells && cellIsAlive.get(r).contains(c)) bitmap[(int)i >>> 6] |= 1L << i;
+			}
+			return;
+		}
+		for (int i = 0; i < numberOfCells; i++) {
+			LinkedList<Integer> theListAssociatedWithThisRow = cellIsAlive.get((int)(fromRow + i));
+			if (theListAssociatedWithThisRow != null && theListAssociatedWithThisRow.contains(c)) bitmap[i >>> 6] |= 1L << i;
+		}
+	}
+
+	/***
+	 * The writeRowSegment routine writes a segment of a row of the board from a bitmap (see
+	 * MemoryDataStructureInterface.writeRowSegment). Each list is fetched once: the alive cells of the segment
+	 * are added to the list of their key, creating it when needed, and the dead ones are removed from it.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Integer c = (int)col;
+		for (int i = 0; i < numberOfCells; i++) {
+			int r = (int)(fromRow + i);
+			LinkedList<Integer> theListAssociatedWithThisRow = cellIsAlive.get(r);
+			if ((bitmap[i >>> 6] & (1L << i)) != 0) {		// The cell is alive, put it in the list of its key
+				if (theListAssociatedWithThisRow == null) {
+					theListAssociatedWithThisRow = new LinkedList<Integer>();
+					cellIsAlive.put(r, theListAssociatedWithThisRow);
+				}
+				if (!theListAssociatedWithThisRow.contains(c)) theListAssociatedWithThisRow.add(c);
+			} else if (theListAssociatedWithThisRow != null && theListAssociatedWithThisRow.remove(c) 
+					&& theListAssociatedWithThisRow.isEmpty())
+				cellIsAlive.remove(r);						// The cell is dead, drop the list once it is empty
+		}
+	}
 	//----------------------------------------------------------------------------------------------------------
 
 	//---------------- Getters ---------------------------------------------------------------------------------
@@ -130,29 +195,113 @@ public class DataStructure implements MemoryDataStructureInterface {
 	}
 	
 	/***
-	 * Getter for Size of Data Structure in Bytes
+	 * Getter for Size of Data Structure in Bytes. Every row costs a Hashtable entry, an Integer key and a
+	 * LinkedList, and every alive cell a node of the list and an Integer, with the sizes they take on a 64-bit
+	 * JVM with compressed references; RetainedHeap measures the exact size on any JVM.
 	 * @return Size in bytes
 	 */
 	public long getDataStructureSize() {
 		// First, get the number of rows in the data-structure
 		long numberOfRows = (long)cellIsAlive.size();
 		long numberOfCols = 0;
-		// Calculate the size occupied by rows
-		long sizeOccupiedByRows = numberOfRows * 4L;
+		long numberOfIntegers = 0;	// The Integers from -128 to 127 are shared by the whole JVM and not counted
 		//Convert the Key-Value pairs to a Set
 		Set<Integer> theKeySet = cellIsAlive.keySet();
 		// Iterate through each pair and fetch the number of cols
 		for (Integer i: theKeySet) {
 			LinkedList<Integer> l = cellIsAlive.get(i);
 			numberOfCols+=l.size();
+			if (i > 127) numberOfIntegers++;
+			for (Integer c: l) if (c > 127) numberOfIntegers++;
 		}
+		// The table of the Hashtable starts with 11 buckets and grows to twice plus one when three quarters
+		// of them are used (it never shrinks, so after many deaths it can be larger)
+		long buckets = 11;
+		while (numberOfRows > (long)(buckets * 0.75)) buckets = buckets * 2 + 1;
+		long sizeOccupiedByTable = HASHTABLE_BYTES + (ARRAY_HEADER_BYTES + buckets * REFERENCE_BYTES + 7) / 8 * 8;
+		// Calculate the size occupied by rows
+		long sizeOccupiedByRows = numberOfRows * (ENTRY_BYTES + LIST_BYTES);
 		// Calculate the size occupied by cols
-		long sizeOccupiedByCols = numberOfCols*4L;
+		long sizeOccupiedByCols = numberOfCols * NODE_BYTES;
 		// Calculate the total size
-		long totalSizeOccupiedByObject = sizeOccupiedByRows+sizeOccupiedByCols;
+		long totalSizeOccupiedByObject = sizeOccupiedByTable+sizeOccupiedByRows+sizeOccupiedByCols
+				+ numberOfIntegers * INTEGER_BYTES;
 		return totalSizeOccupiedByObject;
 	}
-	
+	//----------------------------------------------------------------------------------------------------------
+
+	//---------------- The Simulation Methods ------------------------------------------------------------------
+	/***
+	 * The nextGeneration routine fills this (empty) data-structure with the generation that follows the previous one.
+	 * Only the alive cells of the previous generation are visited: each of them adds one to the neighbour count of
+	 * the 8 cells around it in a primitive keyed count map, so the work grows with the population and not with the
+	 * area of the board. A counted cell is alive in the new generation when it has 3 alive neighbours, or 2 and
+	 * was alive already. As with the cell by cell step, only the cells inside the boundary of this data-structure
+	 * can become alive.
+	 * @param previous The data-structure holding the previous generation
+	 */
+	public void nextGeneration(DataStructure previous) {
+		nextGeneration(previous, LIFE_BIRTH_MASK, LIFE_SURVIVAL_MASK);
+	}
+
+	/***
+	 * The nextGeneration routine fills this (empty) data-structure with the generation that follows the previous one
+	 * under a Life-like rule: a counted cell is alive in the new generation when bit n of the birth mask (of the
+	 * survival mask if it was alive already) is set, n being its number of alive neighbours. With bit 0 of the
+	 * survival mask, the alive cells are counted as well, so a cell with no alive neighbour can survive.
+	 * @param previous The data-structure holding the previous generation
+	 * @param birthMask Bit n: a dead cell with n alive neighbours is born
+	 * @param survivalMask Bit n: an alive cell with n alive neighbours survives
+	 * @throws IllegalArgumentException when bit 0 of the birth mask is set, which would fill the whole board
+	 */
+	public void nextGeneration(DataStructure previous, int birthMask, int survivalMask) {
+		if ((birthMask & 1) != 0) throw new IllegalArgumentException("Birth with no alive neighbour (B0) is not supported");
+		boolean keepsLonelyCells = (survivalMask & 1) != 0;
+
+		// Count the alive neighbours of every cell next to an alive cell
+		CellCountMap neighbourCounts = new CellCountMap(previous.getNumberOfAliveCells() * 8);
+		for (Integer r: previous.cellIsAlive.keySet()) {
+			int row = r;
+			for (Integer c: previous.cellIsAlive.get(r)) {
+				int col = c;
+				neighbourCounts.increment(CellCountMap.pack(row-1, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row-1, col));
+				neighbourCounts.increment(CellCountMap.pack(row-1, col+1));
+				neighbourCounts.increment(CellCountMap.pack(row, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row, col+1));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col+1));
+				if (keepsLonelyCells) neighbourCounts.add(CellCountMap.pack(row, col), 0);
+			}
+		}
+
+		// Apply the rule to the counted cells that are not on the boundary
+		for (int slot = 0; slot < neighbourCounts.capacity(); slot++) {
+			if (!neighbourCounts.isUsed(slot)) continue;
+			int count = neighbourCounts.countAt(slot);
+			boolean isBorn = (birthMask >>> count & 1) != 0;
+			boolean survives = (survivalMask >>> count & 1) != 0;
+			if (!isBorn && !survives) continue;
+			long key = neighbourCounts.keyAt(slot);
+			int row = CellCountMap.rowOf(key);
+			int col = CellCountMap.colOf(key);
+			if (row < 1 || row >= numberOfColumns - 1 || col < 1 || col >= numberOfRows - 1) continue;
+			// Only a count that gives birth or survival but not both depends on the previous state of the cell
+			if ((isBorn && survives) || previous.readDataStructure(row, col) == survives) writeDataStructure(row, col, true);
+		}
+	}
+
+	/***
+	 * Getter for the number of alive cells in the data-structure
+	 * @return the number of alive cells
+	 */
+	public int getNumberOfAliveCells() {
+		int numberOfAliveCells = 0;
+		for (LinkedList<Integer> l: cellIsAlive.values()) numberOfAliveCells += l.size();
+		return numberOfAliveCells;
+	}
+
 
 
 }
@@ -1,4 +1,6 @@
 package jsgrewal.conwaysapi;
+
+import java.util.Arrays;
 /****
  * <b> Title: The Memory Data Structure Interface </b>
  * <p>Description: This interface contains various methods related to storing and retrieving the state of live or dead cells
@@ -42,4 +44,34 @@ public interface MemoryDataStructureInterface {
 	 */
 	public long getDataStructureSize();
 
+	/***
+	 * This routine reads a segment of a row of the board, as the board displays it: the cells that share the col
+	 * index, one after the other along the row index. Bit i of the bitmap (bit i % 64 of word i / 64) tells if
+	 * the cell (fromRow + i, col) is alive. The words covering the segment are overwritten and the bits past its
+	 * end are cleared. This version reads the cells one by one; implementations override it with a bulk version.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells, at least (numberOfCells + 63) / 64 words long
+	 */
+	public default void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		for (int i = 0; i < numberOfCells; i++)
+			if (readDataStructure(fromRow + i, col)) bitmap[i >>> 6] |= 1L << i;
+	}
+
+	/***
+	 * This routine writes a segment of a row of the board from a bitmap laid out as for readRowSegment: every
+	 * cell of the segment is made alive or dead. This version writes the cells one by one; implementations
+	 * override it with a bulk version.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap holding the cells
+	 */
+	public default void writeRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		for (int i = 0; i < numberOfCells; i++)
+			writeDataStructure(fromRow + i, col, (bitmap[i >>> 6] & (1L << i)) != 0);
+	}
+
 }
@@ -0,0 +1,292 @@
+package jsgrewal.conwaysapi;
+
+import java.util.Arrays;
+/***
+ * <b> The PrimitiveDataStructure Class: Sparse Array Implementation Using Primitive Arrays </b>
+ * <p> Description: This data structure stores the same sparse matrix as the Hashtable With LinkedList
+ * implementation, {Row Index} to the {Column Indexes} of its alive cells, without a single boxed value. The rows
+ * are the keys of an open-addressing hash map of ints with linear probing, and the columns of each row are kept
+ * sorted in an int array, so a lookup is a probe of the map and a binary search of the row instead of a
+ * synchronized Hashtable lookup and a LinkedList scan. An alive cell costs 4 bytes plus the spare room of its
+ * row array, instead of a LinkedList node and an Integer.
+ *
+ * <p> Both implementations give the same answers for every cell, so they can be swapped behind the
+ * MemoryDataStructureInterface.
+ *
+ * @author JSGREWAL 2019-05-19 Implemented Primitive Sparse Array
+ */
+
+public class PrimitiveDataStructure implements MemoryDataStructureInterface {
+
+	private static final int EMPTY = Integer.MIN_VALUE;	// Marks an unused slot; no row has this index
+	private static final int MINIMUM_CAPACITY = 16;
+
+	//----------------------------------------------------------------------------------------------------------
+	private int[] rowKeys;			// The row index of each slot, EMPTY in the free slots
+	private int[][] columns;		// The sorted column indexes of the alive cells of the row in the same slot
+	private int[] lengths;			// The number of column indexes used in each row array
+	private int numberOfKeys;		// The number of rows with at least one alive cell
+	private int mask;				// The capacity minus one, the capacity being a power of two
+	//----------------------------------------------------------------------------------------------------------
+	private long numberOfRows; // Number of Rows of the sparse matrix
+	private long numberOfColumns; // Number of Columns of the sparse matrix
+	//----------------------------------------------------------------------------------------------------------
+
+	/***
+	 * The basic constructor of the Data-Structure Object takes the height (number of rows) and width (number of cols)
+	 * of the sparse matrix as parameters. No row is allocated until one of its cells becomes alive.
+	 * @param height Height (Number of Rows) of the sparse matrix
+	 * @param width Width (Number of Cols) of the sparse matrix
+	 */
+	public PrimitiveDataStructure(long height, long width) {
+		numberOfRows = height;
+		numberOfColumns = width;
+		allocate(MINIMUM_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		rowKeys = new int[capacity];
+		columns = new int[capacity][];
+		lengths = new int[capacity];
+		Arrays.fill(rowKeys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	private int home(int row) {
+		int h = row * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/***
+	 * Finds the slot of a row, or -1 when the row has no alive cell
+	 */
+	private int slotOf(int row) {
+		for (int i = home(row); rowKeys[i] != EMPTY; i = (i + 1) & mask)
+			if (rowKeys[i] == row) return i;
+		return -1;
+	}
+
+	//----------------------------------------------------------------------------------------------------------
+	//---------------- The Controller Layer Methods-------------------------------------------------------------
+	/***
+	 * The readDataStructure routine takes the row and column index of a cell as input
+	 * and tells if the cell is alive or not: the row is looked up in the map and the column is
+	 * searched in the sorted columns of the row.
+	 * @param row The row index of cell
+	 * @param col The col index of cell
+	 * @return True if Cell is Alive and False if Cell is not alive.
+	 */
+	public boolean readDataStructure(long row, long col) {
+		int slot = slotOf((int)row);
+		return slot >= 0 && Arrays.binarySearch(columns[slot], 0, lengths[slot], (int)col) >= 0;
+	}
+
+	/***
+	 * The writeDataStructure routine takes the row index, column index and boolean value telling if the
+	 * input cell is alive and then inserts it in the sorted columns of its row *if the cell is alive*, or
+	 * removes it from them if it is dead. A row without alive cells is removed from the map.
+	 * @param row Row index of Cell
+	 * @param col Col index of Cell
+	 * @param isAlive True (Alive) or False (Dead)
+	 */
+	public void writeDataStructure(long row, long col, boolean isAlive) {
+		int r = (int)row;
+		int c = (int)col;
+		int slot = slotOf(r);
+		if (isAlive) {
+			if (slot < 0) slot = addRow(r);
+			int position = Arrays.binarySearch(columns[slot], 0, lengths[slot], c);
+			if (position >= 0) return;								// Already alive
+			position = -position - 1;
+			int[] theColumns = columns[slot];
+			if (lengths[slot] == theColumns.length) {
+				theColumns = Arrays.copyOf(theColumns, theColumns.length * 2);
+				columns[slot] = theColumns;
+			}
+			System.arraycopy(theColumns, position, theColumns, position + 1, lengths[slot] - position);
+			theColumns[position] = c;
+			lengths[slot]++;
+		} else if (slot >= 0) {
+			int position = Arrays.binarySearch(columns[slot], 0, lengths[slot], c);
+			if (position < 0) return;								// Already dead
+			System.arraycopy(columns[slot], position + 1, columns[slot], position, lengths[slot] - position - 1);
+			if (--lengths[slot] == 0) removeRow(slot);
+		}
+	}
+
+	/***
+	 * Adds an empty row to the map and returns its slot
+	 */
+	private int addRow(int row) {
+		if ((numberOfKeys + 1) * 2 > rowKeys.length) grow();
+		int i = home(row);
+		while (rowKeys[i] != EMPTY) i = (i + 1) & mask;
+		rowKeys[i] = row;
+		columns[i] = new int[4];
+		lengths[i] = 0;
+		numberOfKeys++;
+		return i;
+	}
+
+	/***
+	 * Removes the row of a slot, shifting back the rows that follow it in the same run so that no probe is broken
+	 */
+	private void removeRow(int i) {
+		numberOfKeys--;
+		for (int next = (i + 1) & mask; rowKeys[next] != EMPTY; next = (next + 1) & mask) {
+			// Move the row back when its home slot is not between the hole and its current slot
+			if (((next - home(rowKeys[next])) & mask) >= ((next - i) & mask)) {
+				rowKeys[i] = rowKeys[next];
+				columns[i] = columns[next];
+				lengths[i] = lengths[next];
+				i = next;
+			}
+		}
+		rowKeys[i] = EMPTY;
+		columns[i] = null;
+		lengths[i] = 0;
+	}
+
+	private void grow() {
+		int[] oldKeys = rowKeys;
+		int[][] oldColumns = columns;
+		int[] oldLengths = lengths;
+		allocate(oldKeys.length * 2);
+		for (int j = 0; j < oldKeys.length; j++)
+			if (oldKeys[j] != EMPTY) {
+				int i = home(oldKeys[j]);
+				while (rowKeys[i] != EMPTY) i = (i + 1) & mask;
+				rowKeys[i] = oldKeys[j];
+				columns[i] = oldColumns[j];
+				lengths[i] = oldLengths[j];
+			}
+	}
+
+	/***
+	 * The readRowSegment routine reads a segment of a row of the board into a bitmap (see
+	 * MemoryDataStructureInterface.readRowSegment). Every cell of the segment has its own key in the map, so
+	 * either the keys of the segment are probed, or, when the map holds fewer keys than the segment has cells,
+	 * the keys present are visited.
+	 * @param col The col index shared by the cells of the segment
+	 * @param fromRow The row index of the first cell of the segment
+	 * @param numberOfCells The number of cells of the segment
+	 * @param bitmap The bitmap receiving the cells
+	 */
+	public void readRowSegment(long col, long fromRow, int numberOfCells, long[] bitmap) {
+		Arrays.fill(bitmap, 0, (numberOfCells + 63) >>> 6, 0L);
+		int c = (int)col;
+		if (numberOfKeys < numberOfCells) {
+			for (int slot = 0; slot < rowKeys.length; slot++) {
+				if (rowKeys[slot] == EMPTY) continue;
+				long i = rowKeys[slot] - fromRow;
+				if (i >= 0 && i < numberOfCells && Arrays.binarySearch(columns[slot], 0, lengths[slot], c) >= 0)
+					bitmap[(int)i >>> 6] |= 1L << i;
+			}
+			return;
+		}
+		for (int i = 0; i < numberOfCells; i++) {
+			int slot = slotOf((int)(fromRow + i));
+			if (slot >= 0 && Arrays.binarySearch(columns[slot], 0, lengths[slot], c) >= 0) bitmap[i >>> 6] |= 1L << i;
+		}
+	}
+	//----------------------------------------------------------------------------------------------------------
+
+	//---------------- Getters ---------------------------------------------------------------------------------
+	/***
+	 * Getter for Number of Rows of the sparse matrix
+	 */
+	public long getDataStructureHeight() {
+		return numberOfRows;
+	}
+
+	/***
+	 * Getter for Number of Cols of the sparse matrix
+	 */
+	public long getDataStructureWidth() {
+		return numberOfColumns;
+	}
+
+	/***
+	 * Getter for Size of Data Structure in Bytes: the slots of the map and the row arrays, spare room included
+	 * @return Size in bytes
+	 */
+	public long getDataStructureSize() {
+		long totalSizeOccupiedByObject = rowKeys.length * 4L + lengths.length * 4L;
+		for (int[] theColumns: columns)
+			if (theColumns != null) totalSizeOccupiedByObject += theColumns.length * 4L;
+		return totalSizeOccupiedByObject;
+	}
+
+	/***
+	 * Getter for the number of alive cells in the data-structure
+	 * @return the number of alive cells
+	 */
+	public int getNumberOfAliveCells() {
+		int numberOfAliveCells = 0;
+		for (int slot = 0; slot < rowKeys.length; slot++)
+			if (rowKeys[slot] != EMPTY) numberOfAliveCells += lengths[slot];
+		return numberOfAliveCells;
+	}
+	//----------------------------------------------------------------------------------------------------------
+
+	//---------------- The Simulation Methods ------------------------------------------------------------------
+	/***
+	 * The nextGeneration routine fills this (empty) data-structure with the generation that follows the previous one,
+	 * the same way as DataStructure.nextGeneration: each alive cell of the previous generation adds one to the
+	 * neighbour count of the 8 cells around it, and a counted cell inside the boundary is alive in the new
+	 * generation when it has 3 alive neighbours, or 2 and was alive already.
+	 * @param previous The data-structure holding the previous generation
+	 */
+	public void nextGeneration(PrimitiveDataStructure previous) {
+		nextGeneration(previous, DataStructure.LIFE_BIRTH_MASK, DataStructure.LIFE_SURVIVAL_MASK);
+	}
+
+	/***
+	 * The nextGeneration routine fills this (empty) data-structure with the generation that follows the previous one
+	 * under a Life-like rule, the same way as DataStructure.nextGeneration(DataStructure, int, int).
+	 * @param previous The data-structure holding the previous generation
+	 * @param birthMask Bit n: a dead cell with n alive neighbours is born
+	 * @param survivalMask Bit n: an alive cell with n alive neighbours survives
+	 * @throws IllegalArgumentException when bit 0 of the birth mask is set, which would fill the whole board
+	 */
+	public void nextGeneration(PrimitiveDataStructure previous, int birthMask, int survivalMask) {
+		if ((birthMask & 1) != 0) throw new IllegalArgumentException("Birth with no alive neighbour (B0) is not supported");
+		boolean keepsLonelyCells = (survivalMask & 1) != 0;
+
+		// Count the alive neighbours of every cell next to an alive cell
+		CellCountMap neighbourCounts = new CellCountMap(previous.getNumberOfAliveCells() * 8);
+		for (int slot = 0; slot < previous.rowKeys.length; slot++) {
+			if (previous.rowKeys[slot] == EMPTY) continue;
+			int row = previous.rowKeys[slot];
+			int[] theColumns = previous.columns[slot];
+			for (int j = 0; j < previous.lengths[slot]; j++) {
+				int col = theColumns[j];
+				neighbourCounts.increment(CellCountMap.pack(row-1, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row-1, col));
+				neighbourCounts.increment(CellCountMap.pack(row-1, col+1));
+				neighbourCounts.increment(CellCountMap.pack(row, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row, col+1));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col-1));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col));
+				neighbourCounts.increment(CellCountMap.pack(row+1, col+1));
+				if (keepsLonelyCells) neighbourCounts.add(CellCountMap.pack(row, col), 0);
+			}
+		}
+
+		// Apply the rule to the counted cells that are not on the boundary
+		for (int slot = 0; slot < neighbourCounts.capacity(); slot++) {
+			if (!neighbourCounts.isUsed(slot)) continue;
+			int count = neighbourCounts.countAt(slot);
+			boolean isBorn = (birthMask >>> count & 1) != 0;
+			boolean survives = (survivalMask >>> count & 1) != 0;
+			if (!isBorn && !survives) continue;
+			long key = neighbourCounts.keyAt(slot);
+			int row = CellCountMap.rowOf(key);
+			int col = CellCountMap.colOf(key);
+			if (row < 1 || row >= numberOfColumns - 1 || col < 1 || col >= numberOfRows - 1) continue;
+			// Only a count that gives birth or survival but not both depends on the previous state of the cell
+			if ((isBorn && survives) || previous.readDataStructure(row, col) == survives) writeDataStructure(row, col, true);
+		}
+	}
+
+}
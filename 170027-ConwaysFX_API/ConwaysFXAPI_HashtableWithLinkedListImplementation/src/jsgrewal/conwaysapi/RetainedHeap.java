@@ -0,0 +1,226 @@
+package jsgrewal.conwaysapi;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+/***
+ * <b> The RetainedHeap Class: Heap Retained by an Object Graph </b>
+ * <p> Description: This class measures the heap really taken by a data structure, by walking every object it
+ * reaches and adding up their sizes. The size of an object is calculated from the layout HotSpot gives it: the
+ * object header, the fields of the class and of its superclasses packed from the largest down, or the array
+ * header and elements, rounded up to the object alignment. The header, reference and alignment sizes are read
+ * from the options of the running JVM (compressed oops, compressed class pointers, ObjectAlignmentInBytes).
+ *
+ * <p> Objects reachable from an excluded object are not counted, so the objects a data structure shares with
+ * others can be left out by excluding one of the others first. The walk stops at classes, class loaders,
+ * threads and references. The fields of a class in a module that is not open to this one (the JDK collections
+ * unless the program runs with <code>--add-opens java.base/java.util=ALL-UNNAMED</code>) cannot be followed:
+ * such objects are counted on their own and reported by getNumberOfClosedObjects.
+ * @author JSGREWAL
+ */
+
+public class RetainedHeap {
+
+	private static final int REFERENCE_SIZE;		// The bytes taken by a reference field or array element
+	private static final int OBJECT_HEADER;			// The bytes of the header of an object
+	private static final int ARRAY_HEADER;			// The bytes before the first element of an array
+	private static final int ALIGNMENT;				// Every object starts at a multiple of this
+
+	static {
+		boolean compressedOops = true;
+		boolean compressedClassPointers = true;
+		int alignment = 8;
+		try {
+			HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+			compressedOops = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+			compressedClassPointers = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedClassPointers").getValue());
+			alignment = Integer.parseInt(hotSpot.getVMOption("ObjectAlignmentInBytes").getValue());
+		} catch (RuntimeException | LinkageError e) {
+			// Not a HotSpot JVM: keep the defaults of a 64-bit HotSpot with a heap under 32 GB
+		}
+		REFERENCE_SIZE = compressedOops ? 4 : 8;
+		OBJECT_HEADER = compressedClassPointers ? 12 : 16;
+		ARRAY_HEADER = compressedClassPointers ? 16 : 24;
+		ALIGNMENT = alignment;
+	}
+
+	// The layout of every class met, so each class is only inspected once
+	private static final Map<Class<?>, ClassLayout> layouts = new HashMap<Class<?>, ClassLayout>();
+
+	private final IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<Object, Boolean>();
+	private final ArrayDeque<Object> toVisit = new ArrayDeque<Object>();
+	private long numberOfObjects = 0;
+	private long numberOfClosedObjects = 0;
+
+	/***
+	 * This routine marks the objects reachable from the shared object as already counted, so that a following
+	 * measure leaves them out
+	 * @param shared The root of the objects to leave out
+	 */
+	public void exclude(Object shared) {
+		walk(shared, false);
+	}
+
+	/***
+	 * This routine measures the objects reachable from the root that were neither excluded nor measured before
+	 * @param root The root of the object graph, usually a data structure
+	 * @return The bytes of heap taken by the objects
+	 */
+	public long measure(Object root) {
+		return walk(root, true);
+	}
+
+	/***
+	 * Getter for the number of objects counted by the measures
+	 * @return the number of objects
+	 */
+	public long getNumberOfObjects() {
+		return numberOfObjects;
+	}
+
+	/***
+	 * Getter for the number of objects counted whose fields could not be followed, because their class is in a
+	 * module that is not open; when it is not 0 the measures are lower bounds
+	 * @return the number of closed objects
+	 */
+	public long getNumberOfClosedObjects() {
+		return numberOfClosedObjects;
+	}
+
+	/***
+	 * This routine calculates the shallow size of an object: its header and its fields or elements, without
+	 * the objects they refer to
+	 * @param object The object
+	 * @return The bytes taken by the object
+	 */
+	public static long sizeOf(Object object) {
+		Class<?> type = object.getClass();
+		if (type.isArray()) {
+			long elements = (long)Array.getLength(object) * sizeOfType(type.getComponentType());
+			return align(ARRAY_HEADER + elements);
+		}
+		return layoutOf(type).size;
+	}
+
+	/***
+	 * This routine visits the objects reachable from the root, breadth first, and adds up their sizes when
+	 * counting
+	 */
+	private long walk(Object root, boolean counting) {
+		long bytes = 0;
+		if (root == null || visited.containsKey(root)) return 0;
+		visited.put(root, Boolean.TRUE);
+		toVisit.add(root);
+		while (!toVisit.isEmpty()) {
+			Object object = toVisit.poll();
+			Class<?> type = object.getClass();
+			if (counting) {
+				bytes += sizeOf(object);
+				numberOfObjects++;
+			}
+			if (type.isArray()) {
+				if (!type.getComponentType().isPrimitive())
+					for (Object element: (Object[])object) follow(element);
+				continue;
+			}
+			ClassLayout layout = layoutOf(type);
+			if (layout.referenceFields == null) {
+				if (counting) numberOfClosedObjects++;
+				continue;
+			}
+			for (Field field: layout.referenceFields) {
+				try {
+					follow(field.get(object));
+				} catch (IllegalAccessException e) {
+					// trySetAccessible succeeded for the field, so it can be read
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/***
+	 * This routine queues an object met through a field or an array element, unless it has been visited or is
+	 * part of the runtime rather than of the data structure
+	 */
+	private void follow(Object object) {
+		if (object == null || visited.containsKey(object)) return;
+		visited.put(object, Boolean.TRUE);
+		if (object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+				|| object instanceof Reference) return;
+		toVisit.add(object);
+	}
+
+	private static synchronized ClassLayout layoutOf(Class<?> type) {
+		ClassLayout layout = layouts.get(type);
+		if (layout == null) {
+			layout = new ClassLayout(type);
+			layouts.put(type, layout);
+		}
+		return layout;
+	}
+
+	private static int sizeOfType(Class<?> type) {
+		if (type == long.class || type == double.class) return 8;
+		if (type == int.class || type == float.class) return 4;
+		if (type == short.class || type == char.class) return 2;
+		if (type == byte.class || type == boolean.class) return 1;
+		return REFERENCE_SIZE;
+	}
+
+	private static long align(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/***
+	 * The size of the instances of a class and its reference fields, null when they cannot be read
+	 */
+	private static class ClassLayout {
+		final long size;
+		final Field[] referenceFields;
+
+		ClassLayout(Class<?> type) {
+			int[] fieldsOfSize = new int[9];				// The number of fields taking 1, 2, 4 and 8 bytes
+			List<Field> references = new ArrayList<Field>();
+			boolean closed = false;
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (Field field: c.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) continue;
+					fieldsOfSize[sizeOfType(field.getType())]++;
+					if (field.getType().isPrimitive()) continue;
+					if (field.trySetAccessible()) references.add(field);
+					else closed = true;
+				}
+			}
+
+			// The fields are laid out from the largest down; the 8-byte ones start on a multiple of 8, and
+			// the smaller ones fill the gap left between the header and them first
+			long size = OBJECT_HEADER;
+			if (fieldsOfSize[8] > 0 && size % 8 != 0) {
+				long gap = 8 - size % 8;
+				for (int fieldSize = 4; fieldSize >= 1; fieldSize /= 2) {
+					while (gap >= fieldSize && fieldsOfSize[fieldSize] > 0) {
+						gap -= fieldSize;
+						size += fieldSize;
+						fieldsOfSize[fieldSize]--;
+					}
+				}
+				size += gap;
+			}
+			for (int fieldSize = 8; fieldSize >= 1; fieldSize /= 2) size += (long)fieldSize * fieldsOfSize[fieldSize];
+			this.size = align(size);
+			this.referenceFields = closed ? null : references.toArray(new Field[0]);
+		}
+	}
+
+}